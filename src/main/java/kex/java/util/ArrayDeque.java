@@ -35,10 +35,12 @@
 package kex.java.util;
 
 import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
 import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.stream.Stream;
 /**
  * Resizable-array implementation of the {@link Deque} interface.  Array
  * deques have no capacity restrictions; they grow as necessary to support
@@ -89,30 +91,133 @@ public class ArrayDeque<E>
         implements Deque<E>, Cloneable, Serializable {
     private static final int MIN_INITIAL_CAPACITY = 8;
 
-    private ArrayList<E> inner;
+    /**
+     * The elements of the deque are stored in {@code elements[head, tail)}.
+     * The array has an unknown capacity with a free room on both sides,
+     * so operations on both ends are a single store and an index update.
+     * Indices never wrap around, the array is regenerated instead when
+     * one of the ends reaches its bound.
+     */
+    Object[] elements;
+    int head;
+    int tail;
 
     public ArrayDeque() {
-        inner = new ArrayList<>();
+        allocateElements(MIN_INITIAL_CAPACITY);
     }
 
     public ArrayDeque(int numElements) {
-        inner = new ArrayList<>(numElements);
+        allocateElements(numElements);
     }
 
     public ArrayDeque(Collection<? extends E> c) {
-        inner = new ArrayList<>(c);
+        Object[] a = c.toArray();
+        if (!CollectionIntrinsics.forAll(0, a.length, index -> a[index] != null))
+            throw new NullPointerException();
+        allocateElements(a.length);
+        int start = head;
+        elements = CollectionIntrinsics.generateObjectArray(elements.length, index -> {
+            if (index < start) return null;
+            else if (index < start + a.length) return a[index - start];
+            else return null;
+        });
+        tail = start + a.length;
+    }
+
+    private void allocateElements(int numElements) {
+        int capacity = UnknownIntrinsics.kexUnknownInt();
+        int start = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(start >= 0);
+        AssertIntrinsics.kexAssume(capacity >= start + numElements);
+        elements = new Object[capacity];
+        head = start;
+        tail = start;
+    }
+
+    /**
+     * Moves the elements to the new array of unknown capacity, that has
+     * the free room before the first element and after the last one.
+     */
+    private void grow() {
+        int size = tail - head;
+        int oldHead = head;
+        int newCapacity = UnknownIntrinsics.kexUnknownInt();
+        int newHead = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(newHead > 0);
+        AssertIntrinsics.kexAssume(newCapacity > newHead + size);
+        elements = CollectionIntrinsics.generateObjectArray(newCapacity, index -> {
+            if (index < newHead) return null;
+            else if (index < newHead + size) return elements[oldHead + index - newHead];
+            else return null;
+        });
+        head = newHead;
+        tail = newHead + size;
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(elements);
+        AssertIntrinsics.kexAssume(head >= 0);
+        AssertIntrinsics.kexAssume(head <= tail);
+        AssertIntrinsics.kexAssume(tail <= elements.length);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, tail, index -> elements[index] != null));
+    }
+
+    private int firstIndexOf(Object o) {
+        int result = UnknownIntrinsics.kexUnknownInt();
+        if (result < head) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, tail, index -> !o.equals(elements[index])));
+            return -1;
+        }
+        AssertIntrinsics.kexAssume(result < tail);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, result, index -> !o.equals(elements[index])));
+        AssertIntrinsics.kexAssume(o.equals(elements[result]));
+        return result;
+    }
+
+    private int lastIndexOf(Object o) {
+        int result = UnknownIntrinsics.kexUnknownInt();
+        if (result < head) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, tail, index -> !o.equals(elements[index])));
+            return -1;
+        }
+        AssertIntrinsics.kexAssume(result < tail);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, tail, index -> !o.equals(elements[index])));
+        AssertIntrinsics.kexAssume(o.equals(elements[result]));
+        return result;
+    }
+
+    /**
+     * Removes the element at the specified position in the elements array,
+     * the elements after it are shifted to the head.
+     */
+    private void delete(int i) {
+        int oldTail = tail;
+        elements = CollectionIntrinsics.generateObjectArray(elements.length, index -> {
+            if (index < i) return elements[index];
+            else if (index < oldTail - 1) return elements[index + 1];
+            else return null;
+        });
+        tail = oldTail - 1;
     }
 
     @Override
     public void addFirst(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(0, e);
+        if (e == null)
+            throw new NullPointerException();
+        contracts();
+        if (head == 0)
+            grow();
+        elements[--head] = e;
     }
 
     @Override
     public void addLast(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(e);
+        if (e == null)
+            throw new NullPointerException();
+        contracts();
+        if (tail == elements.length)
+            grow();
+        elements[tail++] = e;
     }
 
     @Override
@@ -129,63 +234,104 @@ public class ArrayDeque<E>
 
     @Override
     public E removeFirst() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(0);
+        E x = pollFirst();
+        if (x == null)
+            throw new NoSuchElementException();
+        return x;
     }
 
     @Override
     public E removeLast() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(inner.size() - 1);
+        E x = pollLast();
+        if (x == null)
+            throw new NoSuchElementException();
+        return x;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E pollFirst() {
-        return removeFirst();
+        contracts();
+        if (head == tail)
+            return null;
+        E result = (E) elements[head];
+        elements[head++] = null;
+        return result;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E pollLast() {
-        return removeLast();
+        contracts();
+        if (head == tail)
+            return null;
+        E result = (E) elements[--tail];
+        elements[tail] = null;
+        return result;
     }
 
     @Override
     public E getFirst() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.get(0);
+        E result = peekFirst();
+        if (result == null)
+            throw new NoSuchElementException();
+        return result;
     }
 
     @Override
     public E getLast() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.get(inner.size() - 1);
+        E result = peekLast();
+        if (result == null)
+            throw new NoSuchElementException();
+        return result;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E peekFirst() {
-        return getFirst();
+        contracts();
+        if (head == tail)
+            return null;
+        return (E) elements[head];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E peekLast() {
-        return getLast();
+        contracts();
+        if (head == tail)
+            return null;
+        return (E) elements[tail - 1];
     }
 
     @Override
     public boolean removeFirstOccurrence(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(o);
+        if (o == null)
+            return false;
+        contracts();
+        int index = firstIndexOf(o);
+        if (index < 0)
+            return false;
+        delete(index);
+        return true;
     }
 
     @Override
     public boolean removeLastOccurrence(Object o) {
-        return UnknownIntrinsics.kexUnknownBoolean();
+        if (o == null)
+            return false;
+        contracts();
+        int index = lastIndexOf(o);
+        if (index < 0)
+            return false;
+        delete(index);
+        return true;
     }
 
     @Override
     public boolean add(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.add(e);
+        addLast(e);
+        return true;
     }
 
     @Override
@@ -225,32 +371,93 @@ public class ArrayDeque<E>
 
     @Override
     public int size() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.size();
+        contracts();
+        return tail - head;
     }
 
     @Override
     public boolean isEmpty() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.isEmpty();
+        contracts();
+        return head == tail;
     }
 
     @Override
     public Iterator<E> iterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.iterator();
+        return new DeqIterator();
     }
 
     @Override
     public Iterator<E> descendingIterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.iterator();
+        return new DescendingIterator();
+    }
+
+    private class DeqIterator implements Iterator<E> {
+        int cursor = head;
+        int lastRet = -1;
+
+        @Override
+        public boolean hasNext() {
+            contracts();
+            return cursor < tail;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E next() {
+            contracts();
+            if (cursor >= tail)
+                throw new NoSuchElementException();
+            lastRet = cursor;
+            return (E) elements[cursor++];
+        }
+
+        @Override
+        public void remove() {
+            contracts();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            delete(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+        }
+    }
+
+    private class DescendingIterator implements Iterator<E> {
+        int cursor = tail - 1;
+        int lastRet = -1;
+
+        @Override
+        public boolean hasNext() {
+            contracts();
+            return cursor >= head;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E next() {
+            contracts();
+            if (cursor < head)
+                throw new NoSuchElementException();
+            lastRet = cursor;
+            return (E) elements[cursor--];
+        }
+
+        @Override
+        public void remove() {
+            contracts();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            delete(lastRet);
+            lastRet = -1;
+        }
     }
 
     @Override
     public boolean contains(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.contains(o);
+        if (o == null)
+            return false;
+        contracts();
+        return firstIndexOf(o) >= 0;
     }
 
     @Override
@@ -260,33 +467,51 @@ public class ArrayDeque<E>
 
     @Override
     public void clear() {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.clear();
+        contracts();
+        tail = head;
     }
 
     @Override
     public Object[] toArray() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.toArray();
+        contracts();
+        return Arrays.copyOfRange(elements, head, tail);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public <T> T[] toArray(T[] a) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.toArray(a);
+        contracts();
+        return Arrays.copyOfRange(elements, head, tail, (Class<? extends T[]>) a.getClass());
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public ArrayDeque<E> clone() {
-        AssertIntrinsics.kexNotNull(inner);
-        ArrayDeque<E> v = new ArrayDeque<>();
-        v.inner = (ArrayList<E>) inner.clone();
-        return v;
+        contracts();
+        try {
+            ArrayDeque<E> result = (ArrayDeque<E>) super.clone();
+            result.elements = Arrays.copyOf(elements, elements.length);
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    public String toString() {
+        contracts();
+        return Collections.collectionToString(this, elements, head, tail);
     }
 
     @Override
     public Spliterator<E> spliterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.spliterator();
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(elements, head, tail, Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public Stream<E> stream() {
+        contracts();
+        return new ArrayStream<>(elements, head, tail);
     }
 }
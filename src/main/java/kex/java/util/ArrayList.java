@@ -32,6 +32,7 @@ import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
 
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Resizable-array implementation of the <tt>List</tt> interface.  Implements
@@ -114,6 +115,12 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
     Object[] elementData;
 
+    /**
+     * The number of elements the list contains, the rest of
+     * {@code elementData} is spare capacity.
+     */
+    int size;
+
     public ArrayList(int initialCapacity) {
         super();
         if (initialCapacity < 0)
@@ -131,6 +138,13 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
     public ArrayList(Collection<? extends E> c) {
         elementData = c.toArray();
+        size = elementData.length;
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(elementData);
+        AssertIntrinsics.kexAssume(size >= 0);
+        AssertIntrinsics.kexAssume(size <= elementData.length);
     }
 
     public void trimToSize() {
@@ -138,108 +152,155 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
     }
 
     public void ensureCapacity(int minCapacity) {
-        AssertIntrinsics.kexAssume(elementData.length > minCapacity);
+        contracts();
+        ensureCapacityInternal(minCapacity);
     }
 
     private void ensureCapacityInternal(int minCapacity) {
-        AssertIntrinsics.kexAssume(elementData.length > minCapacity);
+        if (minCapacity > elementData.length)
+            grow(minCapacity);
+    }
+
+    /**
+     * Replaces the backing array with the one of unknown capacity, that is
+     * enough to hold at least {@code minCapacity} elements.
+     */
+    private void grow(int minCapacity) {
+        int newCapacity = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(newCapacity >= minCapacity);
+        int oldSize = size;
+        elementData = CollectionIntrinsics.generateObjectArray(newCapacity, index -> {
+            if (index < oldSize) return elementData[index];
+            else return null;
+        });
     }
 
     @Override
     public int size() {
-        AssertIntrinsics.kexNotNull(elementData);
-        return elementData.length;
+        contracts();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        AssertIntrinsics.kexNotNull(elementData);
-        return elementData.length == 0;
+        contracts();
+        return size == 0;
     }
 
     @Override
     public boolean contains(Object o) {
-        AssertIntrinsics.kexNotNull(elementData);
-        return CollectionIntrinsics.contains(elementData, o);
+        return indexOf(o) >= 0;
     }
 
-    private Object tempObject = null;
-
     @Override
     public int indexOf(Object o) {
-        AssertIntrinsics.kexNotNull(elementData);
-        tempObject = o;
-        if (CollectionIntrinsics.contains(elementData, tempObject)) {
-            int result = UnknownIntrinsics.kexUnknownInt();
-            AssertIntrinsics.kexAssume(result >= 0);
-            AssertIntrinsics.kexAssume(result < elementData.length);
-            if (o == null) {
-                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, result, index -> elementData[index] != null));
-                AssertIntrinsics.kexAssert(elementData[result] == null);
-            } else {
-                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, result, index -> !tempObject.equals(elementData[index])));
-                AssertIntrinsics.kexAssert(o.equals(elementData[result]));
-            }
-            return result;
+        contracts();
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < size);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, size, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, result, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[result]));
         }
-        return -1;
+        return result;
     }
 
     @Override
     public int lastIndexOf(Object o) {
-        AssertIntrinsics.kexNotNull(elementData);
-        tempObject = o;
-        if (CollectionIntrinsics.contains(elementData, tempObject)) {
-            int result = UnknownIntrinsics.kexUnknownInt();
-            AssertIntrinsics.kexAssume(result >= 0);
-            AssertIntrinsics.kexAssume(result < elementData.length);
-            if (o == null) {
-                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, elementData.length, index -> elementData[index] != null));
-                AssertIntrinsics.kexAssert(elementData[result] == null);
-            } else {
-                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, elementData.length, index -> !tempObject.equals(elementData[index])));
-                AssertIntrinsics.kexAssert(o.equals(elementData[result]));
-            }
-            return result;
+        contracts();
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < size);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, size, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, size, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[result]));
+        }
+        return result;
+    }
+
+    /**
+     * Compares the backing arrays with a single quantified constraint instead
+     * of walking both lists with iterators.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof java.util.List))
+            return false;
+        contracts();
+        final Object[] other;
+        final int otherSize;
+        if (o instanceof ArrayList) {
+            ArrayList<?> list = (ArrayList<?>) o;
+            list.contracts();
+            other = list.elementData;
+            otherSize = list.size;
+        } else {
+            other = ((java.util.List<?>) o).toArray();
+            otherSize = other.length;
         }
-        return -1;
+        if (size != otherSize)
+            return false;
+        return CollectionIntrinsics.forAll(0, size, index -> ObjectIntrinsics.equals(elementData[index], other[index]));
+    }
+
+    /**
+     * Same value as the JDK, computed in one pass over the backing array.
+     * Code under test may rely on the exact value, so the polynomial hash is
+     * kept as it is.
+     */
+    @Override
+    public int hashCode() {
+        contracts();
+        int[] hashCode = new int[]{1};
+        CollectionIntrinsics.forEach(0, size, index -> {
+            Object e = elementData[index];
+            hashCode[0] = 31 * hashCode[0] + (e == null ? 0 : e.hashCode());
+        });
+        return hashCode[0];
     }
 
     @Override
     public Object clone() {
         ArrayList<?> v = new ArrayList<>();
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         v.elementData = Arrays.copyOf(elementData, elementData.length);
+        v.size = size;
         v.modCount = 0;
         return v;
     }
 
     @Override
     public Object[] toArray() {
-        AssertIntrinsics.kexNotNull(elementData);
-        return Arrays.copyOf(elementData, elementData.length);
+        contracts();
+        return Arrays.copyOf(elementData, size);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T[] toArray(T[] a) {
-        AssertIntrinsics.kexNotNull(elementData);
-        return (T[]) Arrays.copyOf(elementData, elementData.length, a.getClass());
+        contracts();
+        return (T[]) Arrays.copyOf(elementData, size, a.getClass());
     }
 
     private void rangeCheck(int index) {
-        AssertIntrinsics.kexAssume(index < elementData.length);
+        AssertIntrinsics.kexAssume(index < size);
     }
 
     private void rangeCheckForAdd(int index) {
         AssertIntrinsics.kexAssume(index >= 0);
-        AssertIntrinsics.kexAssume(index < elementData.length);
+        AssertIntrinsics.kexAssume(index <= size);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public E get(int index) {
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         rangeCheck(index);
         return (E) elementData[index];
     }
@@ -247,7 +308,7 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
     @SuppressWarnings("unchecked")
     @Override
     public E set(int index, E element) {
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         rangeCheck(index);
 
         E oldValue = (E) elementData[index];
@@ -257,133 +318,147 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
     @Override
     public boolean add(E e) {
-        AssertIntrinsics.kexNotNull(elementData);
-        int oldLength = elementData.length;
-        elementData = CollectionIntrinsics.generateObjectArray(oldLength + 1, index -> {
-            if (index < oldLength) return elementData[index];
-            else return null;
-        });
-        elementData[oldLength] = e;
+        contracts();
+        ensureCapacityInternal(size + 1);
+        elementData[size++] = e;
         return true;
     }
 
     @Override
     public void add(int index, E element) {
-        AssertIntrinsics.kexNotNull(elementData);
-        int oldLength = elementData.length;
-        elementData = CollectionIntrinsics.generateObjectArray(oldLength + 1, i -> {
+        contracts();
+        rangeCheckForAdd(index);
+        ensureCapacityInternal(size + 1);
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
             if (i < index) return elementData[i];
-            else if (i == index) return null;
+            else if (i == index) return element;
             else return elementData[i - 1];
         });
-        elementData[index] = element;
+        size++;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E remove(int index) {
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         rangeCheck(index);
 
         E oldValue = (E) elementData[index];
 
-        int numMoved = elementData.length - index - 1;
+        int oldSize = size;
+        int numMoved = oldSize - index - 1;
         if (numMoved > 0)
-            elementData = CollectionIntrinsics.generateObjectArray(elementData.length - 1, i -> {
+            elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
                 if (i < index) return elementData[i];
-                else return elementData[i - 1];
+                else if (i < oldSize - 1) return elementData[i + 1];
+                else return null;
             });
+        elementData[--size] = null;
         return oldValue;
     }
 
     @Override
     public boolean remove(Object o) {
-        AssertIntrinsics.kexNotNull(elementData);
-
-        if (!contains(o)) return false;
         int removeIndex = indexOf(o);
+        if (removeIndex < 0) return false;
 
-        elementData = CollectionIntrinsics.generateObjectArray(elementData.length - 1, i -> {
-            if (i < removeIndex) return elementData[i];
-            else return elementData[i - 1];
-        });
+        remove(removeIndex);
         return true;
     }
 
     @Override
     public void clear() {
-        AssertIntrinsics.kexNotNull(elementData);
-        elementData = new Object[0];
+        contracts();
+        size = 0;
     }
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         Object[] a = c.toArray();
         int numNew = a.length;
-        int oldSize = elementData.length;
-        elementData = CollectionIntrinsics.generateObjectArray(oldSize + numNew, i -> {
+        int oldSize = size;
+        ensureCapacityInternal(oldSize + numNew);
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
             if (i < oldSize) return elementData[i];
-            return a[i - oldSize];
+            else if (i < oldSize + numNew) return a[i - oldSize];
+            else return null;
         });
+        size += numNew;
         return numNew != 0;
     }
 
     @Override
     public boolean addAll(int index, Collection<? extends E> c) {
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         rangeCheckForAdd(index);
 
         Object[] a = c.toArray();
         int numNew = a.length;
-        int oldSize = elementData.length;
-
-        int numMoved = oldSize - index;
-        elementData = CollectionIntrinsics.generateObjectArray(oldSize + numNew, i -> {
+        int oldSize = size;
+        ensureCapacityInternal(oldSize + numNew);
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
             if (i < index) return elementData[i];
-            else if (i < index + numMoved) return a[i - index];
-            else if (i + numMoved < elementData.length) return elementData[i + numMoved];
+            else if (i < index + numNew) return a[i - index];
+            else if (i < oldSize + numNew) return elementData[i - numNew];
             else return null;
         });
+        size += numNew;
         return numNew != 0;
     }
 
     protected void removeRange(int fromIndex, int toIndex) {
-        AssertIntrinsics.kexNotNull(elementData);
+        contracts();
         int numMoved = toIndex - fromIndex;
-        elementData = CollectionIntrinsics.generateObjectArray(elementData.length - numMoved, i -> {
+        int oldSize = size;
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
             if (i < fromIndex) return elementData[i];
-            else if (i + numMoved < elementData.length) return elementData[i + numMoved];
+            else if (i + numMoved < oldSize) return elementData[i + numMoved];
             else return null;
         });
+        size -= numMoved;
     }
 
     @Override
     public boolean removeAll(Collection<?> c) {
-//        AssertIntrinsics.kexNotNull(c);
-//        Object[] other = c.toArray();
-//        CollectionIntrinsics.forEach(0, other.length, index -> {
-//            if (CollectionIntrinsics.contains(elementData, other[index])) {
-//                remove(other[index]);
-//            }
-//        });
-        return true;
+        AssertIntrinsics.kexNotNull(c);
+        return batchRemove(c, false);
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
-//        AssertIntrinsics.kexNotNull(c);
-//        Object[] other = c.toArray();
-//        CollectionIntrinsics.forEach(0, other.length, index -> {
-//            if (!CollectionIntrinsics.contains(elementData, other[index])) {
-//                remove(other[index]);
-//            }
-//        });
-        return true;
+        AssertIntrinsics.kexNotNull(c);
+        return batchRemove(c, true);
+    }
+
+    private boolean batchRemove(Collection<?> c, boolean complement) {
+        contracts();
+        int oldSize = size;
+        size = batchRemove(elementData, oldSize, c, complement);
+        return size != oldSize;
+    }
+
+    /**
+     * Compacts the first {@code size} elements of the array that are (if
+     * {@code complement}) or are not contained in {@code c} to its beginning
+     * in one pass. Shared by the array-backed lists.
+     *
+     * @return the number of the kept elements
+     */
+    static int batchRemove(Object[] elementData, int size, Collection<?> c, boolean complement) {
+        Object[] other = c.toArray();
+        int[] written = new int[1];
+        CollectionIntrinsics.forEach(0, size, index -> {
+            Object element = elementData[index];
+            if (CollectionIntrinsics.contains(other, element) == complement)
+                elementData[written[0]++] = element;
+        });
+        return written[0];
     }
 
     @Override
     public ListIterator<E> listIterator(int index) {
-        if (index < 0 || index > elementData.length)
+        if (index < 0 || index > size)
             throw new IndexOutOfBoundsException("Index: " + index);
         return new ArrayList.ListItr(index);
     }
@@ -404,15 +479,17 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
         @Override
         public boolean hasNext() {
-            AssertIntrinsics.kexNotNull(elementData);
-            return cursor < elementData.length;
+            contracts();
+            return cursor < size;
         }
 
         @SuppressWarnings("unchecked")
         @Override
         public E next() {
             int i = cursor;
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
+            if (i >= size)
+                throw new NoSuchElementException();
             Object[] elementData = ArrayList.this.elementData;
             cursor = i + 1;
             return (E) elementData[lastRet = i];
@@ -420,7 +497,7 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
         @Override
         public void remove() {
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             if (lastRet < 0)
                 throw new IllegalStateException();
 
@@ -438,19 +515,19 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
         @Override
         public boolean hasPrevious() {
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             return cursor != 0;
         }
 
         @Override
         public int nextIndex() {
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             return cursor;
         }
 
         @Override
         public int previousIndex() {
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             return cursor - 1;
         }
 
@@ -460,7 +537,7 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
             int i = cursor - 1;
             if (i < 0)
                 throw new NoSuchElementException();
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             Object[] elementData = ArrayList.this.elementData;
             cursor = i;
             return (E) elementData[lastRet = i];
@@ -468,14 +545,14 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
         @Override
         public void set(E e) {
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             if (lastRet < 0) throw new IllegalStateException();
             ArrayList.this.set(lastRet, e);
         }
 
         @Override
         public void add(E e) {
-            AssertIntrinsics.kexNotNull(elementData);
+            contracts();
             int i = cursor;
             ArrayList.this.add(i, e);
             cursor = i + 1;
@@ -485,26 +562,194 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAcce
 
 
     public List<E> subList(int fromIndex, int toIndex) {
-        return UnknownIntrinsics.kexUnknown();
+        contracts();
+        subListRangeCheck(fromIndex, toIndex, size);
+        return new SubList(null, fromIndex, toIndex - fromIndex);
+    }
+
+    static void subListRangeCheck(int fromIndex, int toIndex, int size) {
+        AssertIntrinsics.kexAssume(fromIndex >= 0);
+        AssertIntrinsics.kexAssume(toIndex <= size);
+        AssertIntrinsics.kexAssume(fromIndex <= toIndex);
+    }
+
+    /**
+     * View of the {@code [offset, offset + size)} range of the list. No elements
+     * are copied, all accesses go to {@code ArrayList.this.elementData} with the
+     * index shifted by {@code offset}.
+     */
+    private class SubList extends AbstractList<E> implements RandomAccess {
+        /**
+         * Enclosing sublist, whose size also changes on structural modifications,
+         * or {@code null} for the view of the list itself.
+         */
+        private final SubList parent;
+        private final int offset;
+        int size;
+
+        SubList(SubList parent, int offset, int size) {
+            this.parent = parent;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        private void rangeCheck(int index) {
+            AssertIntrinsics.kexAssume(index >= 0);
+            AssertIntrinsics.kexAssume(index < size);
+        }
+
+        private void rangeCheckForAdd(int index) {
+            AssertIntrinsics.kexAssume(index >= 0);
+            AssertIntrinsics.kexAssume(index <= size);
+        }
+
+        private void updateSize(int delta) {
+            for (SubList subList = this; subList != null; subList = subList.parent)
+                subList.size += delta;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E get(int index) {
+            contracts();
+            rangeCheck(index);
+            return (E) elementData[offset + index];
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E set(int index, E element) {
+            contracts();
+            rangeCheck(index);
+            E oldValue = (E) elementData[offset + index];
+            elementData[offset + index] = element;
+            return oldValue;
+        }
+
+        @Override
+        public void add(int index, E element) {
+            rangeCheckForAdd(index);
+            ArrayList.this.add(offset + index, element);
+            updateSize(1);
+        }
+
+        @Override
+        public E remove(int index) {
+            rangeCheck(index);
+            E result = ArrayList.this.remove(offset + index);
+            updateSize(-1);
+            return result;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            ArrayList.this.removeRange(offset + fromIndex, offset + toIndex);
+            updateSize(fromIndex - toIndex);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends E> c) {
+            return addAll(size, c);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends E> c) {
+            rangeCheckForAdd(index);
+            int oldSize = ArrayList.this.size;
+            ArrayList.this.addAll(offset + index, c);
+            int numNew = ArrayList.this.size - oldSize;
+            updateSize(numNew);
+            return numNew != 0;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            contracts();
+            int result = UnknownIntrinsics.kexUnknownInt();
+            AssertIntrinsics.kexAssume(result >= -1);
+            AssertIntrinsics.kexAssume(result < size);
+            if (result < 0) {
+                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(offset, offset + size, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+            } else {
+                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(offset, offset + result, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+                AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[offset + result]));
+            }
+            return result;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            contracts();
+            int result = UnknownIntrinsics.kexUnknownInt();
+            AssertIntrinsics.kexAssume(result >= -1);
+            AssertIntrinsics.kexAssume(result < size);
+            if (result < 0) {
+                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(offset, offset + size, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+            } else {
+                AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(offset + result + 1, offset + size, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+                AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[offset + result]));
+            }
+            return result;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public Object[] toArray() {
+            contracts();
+            return Arrays.copyOfRange(elementData, offset, offset + size);
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            subListRangeCheck(fromIndex, toIndex, size);
+            return new SubList(this, offset + fromIndex, toIndex - fromIndex);
+        }
     }
 
 
+    @SuppressWarnings("unchecked")
     @Override
     public void forEach(Consumer<? super E> action) {
-//        AssertIntrinsics.kexNotNull(action);
-//        final int expectedModCount = modCount;
-//        @SuppressWarnings("unchecked") final E[] elementData = (E[]) this.elementData;
-//        final int size = this.size;
-//        CollectionIntrinsics.forEach(0, size, index -> {
-//            action.accept(elementData[index]);
-//        });
-//        if (modCount != expectedModCount) {
-//            throw new ConcurrentModificationException();
-//        }
+        AssertIntrinsics.kexNotNull(action);
+        contracts();
+        final E[] elementData = (E[]) this.elementData;
+        final int size = this.size;
+        CollectionIntrinsics.forEach(0, size, index -> {
+            action.accept(elementData[index]);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void sort(Comparator<? super E> c) {
+        contracts();
+        Arrays.sort((E[]) elementData, 0, size, c);
+    }
+
+    @Override
+    public String toString() {
+        contracts();
+        return Collections.collectionToString(this, elementData, 0, size);
     }
 
     @Override
     public Spliterator<E> spliterator() {
-        return UnknownIntrinsics.kexUnknown();
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(elementData, 0, size, Spliterator.ORDERED);
+    }
+
+    @Override
+    public Stream<E> stream() {
+        contracts();
+        return new ArrayStream<>(elementData, 0, size);
     }
 }
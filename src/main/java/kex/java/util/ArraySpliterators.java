@@ -0,0 +1,237 @@
+package kex.java.util;
+
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterators over the {@code [index, fence)} range of the backing arrays
+ * of kex collections. Traversal of the remaining elements is a single
+ * {@link CollectionIntrinsics#forEach} step. Splitting is not modeled,
+ * {@code trySplit} always returns {@code null} and the whole range is
+ * traversed sequentially.
+ */
+final class ArraySpliterators {
+    private ArraySpliterators() {
+    }
+
+    static final class ArraySpliterator<T> implements Spliterator<T> {
+        private final Object[] array;
+        private int index;
+        private final int fence;
+        private final int characteristics;
+
+        ArraySpliterator(Object[] array, int origin, int fence, int additionalCharacteristics) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+            this.characteristics = additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            AssertIntrinsics.kexNotNull(action);
+            int origin = index;
+            index = fence;
+            CollectionIntrinsics.forEach(origin, fence, i -> action.accept((T) array[i]));
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            AssertIntrinsics.kexNotNull(action);
+            if (index >= fence)
+                return false;
+            action.accept((T) array[index++]);
+            return true;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if (hasCharacteristics(Spliterator.SORTED))
+                return null;
+            throw new IllegalStateException();
+        }
+    }
+
+    static final class IntArraySpliterator implements Spliterator.OfInt {
+        private final int[] array;
+        private int index;
+        private final int fence;
+        private final int characteristics;
+
+        IntArraySpliterator(int[] array, int origin, int fence, int additionalCharacteristics) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+            this.characteristics = additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            return null;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            AssertIntrinsics.kexNotNull(action);
+            int origin = index;
+            index = fence;
+            CollectionIntrinsics.forEach(origin, fence, i -> action.accept(array[i]));
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            AssertIntrinsics.kexNotNull(action);
+            if (index >= fence)
+                return false;
+            action.accept(array[index++]);
+            return true;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            if (hasCharacteristics(Spliterator.SORTED))
+                return null;
+            throw new IllegalStateException();
+        }
+    }
+
+    static final class LongArraySpliterator implements Spliterator.OfLong {
+        private final long[] array;
+        private int index;
+        private final int fence;
+        private final int characteristics;
+
+        LongArraySpliterator(long[] array, int origin, int fence, int additionalCharacteristics) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+            this.characteristics = additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            return null;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            AssertIntrinsics.kexNotNull(action);
+            int origin = index;
+            index = fence;
+            CollectionIntrinsics.forEach(origin, fence, i -> action.accept(array[i]));
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            AssertIntrinsics.kexNotNull(action);
+            if (index >= fence)
+                return false;
+            action.accept(array[index++]);
+            return true;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            if (hasCharacteristics(Spliterator.SORTED))
+                return null;
+            throw new IllegalStateException();
+        }
+    }
+
+    static final class DoubleArraySpliterator implements Spliterator.OfDouble {
+        private final double[] array;
+        private int index;
+        private final int fence;
+        private final int characteristics;
+
+        DoubleArraySpliterator(double[] array, int origin, int fence, int additionalCharacteristics) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+            this.characteristics = additionalCharacteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        @Override
+        public OfDouble trySplit() {
+            return null;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            AssertIntrinsics.kexNotNull(action);
+            int origin = index;
+            index = fence;
+            CollectionIntrinsics.forEach(origin, fence, i -> action.accept(array[i]));
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            AssertIntrinsics.kexNotNull(action);
+            if (index >= fence)
+                return false;
+            action.accept(array[index++]);
+            return true;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super Double> getComparator() {
+            if (hasCharacteristics(Spliterator.SORTED))
+                return null;
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package kex.java.util;
+
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.*;
+import java.util.stream.*;
+
+/**
+ * Sequential stream over the {@code [origin, fence)} range of an array.
+ * Intermediate operations are not evaluated, they are composed into a
+ * single stage that computes the element of a source index. Every terminal
+ * operation runs the stage once per visited index in a single
+ * {@link CollectionIntrinsics#forEach} step, so each element passes through
+ * the whole pipeline before the next one, as in the JDK. Short-circuiting
+ * operations stop at an unknown index, and their quantified constraints only
+ * read the results of that step. Other operations are delegated to the JDK
+ * stream built over the same stage.
+ */
+final class ArrayStream<T> implements Stream<T> {
+    /**
+     * Result of the stage for an element dropped by a {@code filter}.
+     */
+    static final Object SKIPPED = new Object();
+
+    /**
+     * Source array if no intermediate operation is applied, null otherwise.
+     */
+    private final Object[] array;
+    private final int origin;
+    private final int fence;
+    /**
+     * Element of the stream at a source index, or {@link #SKIPPED}.
+     */
+    private final IntFunction<Object> stage;
+    /**
+     * Whether the stage may skip elements.
+     */
+    private final boolean filtered;
+
+    ArrayStream(Object[] array, int origin, int fence) {
+        AssertIntrinsics.kexNotNull(array);
+        this.array = array;
+        this.origin = origin;
+        this.fence = fence;
+        this.stage = index -> array[index];
+        this.filtered = false;
+    }
+
+    ArrayStream(int origin, int fence, IntFunction<Object> stage, boolean filtered) {
+        this.array = null;
+        this.origin = origin;
+        this.fence = fence;
+        this.stage = stage;
+        this.filtered = filtered;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<T> fallback() {
+        if (array != null)
+            return StreamSupport.stream(spliterator(), false);
+        return IntStream.range(origin, fence).mapToObj(stage).filter(v -> v != SKIPPED).map(v -> (T) v);
+    }
+
+    /**
+     * Passes every element of the stream to the action in one pass.
+     */
+    private void evaluate(Consumer<Object> action) {
+        CollectionIntrinsics.forEach(origin, fence, index -> {
+            Object v = stage.apply(index);
+            if (v != SKIPPED)
+                action.accept(v);
+        });
+    }
+
+    /**
+     * Runs the pipeline up to the first element that matches the predicate,
+     * like the short-circuit of the JDK. The index of that element is
+     * unknown, the stage and the predicate run in a forEach step up to it,
+     * and the constraints that place the index only read their results.
+     *
+     * @param match receives the element at the returned index
+     * @return source index of the first matching element, or {@code fence}
+     * if no element matches
+     */
+    private int firstMatch(Predicate<Object> predicate, Object[] match) {
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= origin);
+        AssertIntrinsics.kexAssume(index <= fence);
+        int end = index < fence ? index + 1 : fence;
+        boolean[] matched = new boolean[end - origin];
+        CollectionIntrinsics.forEach(origin, end, i -> {
+            Object v = stage.apply(i);
+            matched[i - origin] = v != SKIPPED && predicate.test(v);
+            match[0] = v;
+        });
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, index - origin, i -> !matched[i]));
+        AssertIntrinsics.kexAssume(index == fence || matched[index - origin]);
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Stream<T> filter(Predicate<? super T> predicate) {
+        AssertIntrinsics.kexNotNull(predicate);
+        return new ArrayStream<>(origin, fence, index -> {
+            Object v = stage.apply(index);
+            return v != SKIPPED && predicate.test((T) v) ? v : SKIPPED;
+        }, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <R> Stream<R> map(Function<? super T, ? extends R> mapper) {
+        AssertIntrinsics.kexNotNull(mapper);
+        return new ArrayStream<>(origin, fence, index -> {
+            Object v = stage.apply(index);
+            return v == SKIPPED ? SKIPPED : mapper.apply((T) v);
+        }, filtered);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public IntStream mapToInt(ToIntFunction<? super T> mapper) {
+        AssertIntrinsics.kexNotNull(mapper);
+        return new IntArrayStream(origin, fence, (index, sink) -> {
+            Object v = stage.apply(index);
+            if (v != SKIPPED)
+                sink.accept(mapper.applyAsInt((T) v));
+        }, filtered);
+    }
+
+    @Override
+    public LongStream mapToLong(ToLongFunction<? super T> mapper) {
+        return fallback().mapToLong(mapper);
+    }
+
+    @Override
+    public DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
+        return fallback().mapToDouble(mapper);
+    }
+
+    @Override
+    public <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper) {
+        return fallback().flatMap(mapper);
+    }
+
+    @Override
+    public IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
+        return fallback().flatMapToInt(mapper);
+    }
+
+    @Override
+    public LongStream flatMapToLong(Function<? super T, ? extends LongStream> mapper) {
+        return fallback().flatMapToLong(mapper);
+    }
+
+    @Override
+    public DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper) {
+        return fallback().flatMapToDouble(mapper);
+    }
+
+    @Override
+    public Stream<T> distinct() {
+        return fallback().distinct();
+    }
+
+    @Override
+    public Stream<T> sorted() {
+        return fallback().sorted();
+    }
+
+    @Override
+    public Stream<T> sorted(Comparator<? super T> comparator) {
+        return fallback().sorted(comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Stream<T> peek(Consumer<? super T> action) {
+        AssertIntrinsics.kexNotNull(action);
+        return new ArrayStream<>(origin, fence, index -> {
+            Object v = stage.apply(index);
+            if (v != SKIPPED)
+                action.accept((T) v);
+            return v;
+        }, filtered);
+    }
+
+    /**
+     * Without filters every source index yields exactly one element, so the
+     * limit cuts the source range and the stage never runs past it.
+     */
+    @Override
+    public Stream<T> limit(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        if (filtered)
+            return fallback().limit(maxSize);
+        if (maxSize >= fence - origin)
+            return this;
+        int newFence = origin + (int) maxSize;
+        return array != null ? new ArrayStream<>(array, origin, newFence)
+                : new ArrayStream<>(origin, newFence, stage, false);
+    }
+
+    /**
+     * Skipped elements still pass through the intermediate operations in the
+     * JDK, so only a plain array range is cut.
+     */
+    @Override
+    public Stream<T> skip(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(Long.toString(n));
+        if (array == null)
+            return fallback().skip(n);
+        if (n >= fence - origin)
+            return new ArrayStream<>(array, fence, fence);
+        return new ArrayStream<>(array, origin + (int) n, fence);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        AssertIntrinsics.kexNotNull(action);
+        evaluate(v -> action.accept((T) v));
+    }
+
+    @Override
+    public void forEachOrdered(Consumer<? super T> action) {
+        forEach(action);
+    }
+
+    @Override
+    public Object[] toArray() {
+        if (array != null)
+            return Arrays.copyOfRange(array, origin, fence);
+        Object[] result = new Object[fence - origin];
+        int[] written = new int[1];
+        evaluate(v -> result[written[0]++] = v);
+        return Arrays.copyOf(result, written[0]);
+    }
+
+    @Override
+    public <A> A[] toArray(IntFunction<A[]> generator) {
+        Object[] elements = toArray();
+        A[] result = generator.apply(elements.length);
+        System.arraycopy(elements, 0, result, 0, elements.length);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T reduce(T identity, BinaryOperator<T> accumulator) {
+        AssertIntrinsics.kexNotNull(accumulator);
+        Object[] accumulated = {identity};
+        evaluate(v -> accumulated[0] = accumulator.apply((T) accumulated[0], (T) v));
+        return (T) accumulated[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Optional<T> reduce(BinaryOperator<T> accumulator) {
+        AssertIntrinsics.kexNotNull(accumulator);
+        boolean[] found = new boolean[1];
+        Object[] accumulated = new Object[1];
+        evaluate(v -> {
+            if (found[0]) {
+                accumulated[0] = accumulator.apply((T) accumulated[0], (T) v);
+            } else {
+                found[0] = true;
+                accumulated[0] = v;
+            }
+        });
+        return found[0] ? Optional.of((T) accumulated[0]) : Optional.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner) {
+        AssertIntrinsics.kexNotNull(accumulator);
+        Object[] accumulated = {identity};
+        evaluate(v -> accumulated[0] = accumulator.apply((U) accumulated[0], (T) v));
+        return (U) accumulated[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super T> accumulator, BiConsumer<R, R> combiner) {
+        AssertIntrinsics.kexNotNull(accumulator);
+        R container = supplier.get();
+        evaluate(v -> accumulator.accept(container, (T) v));
+        return container;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <R, A> R collect(Collector<? super T, A, R> collector) {
+        AssertIntrinsics.kexNotNull(collector);
+        A container = collector.supplier().get();
+        BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        evaluate(v -> accumulator.accept(container, (T) v));
+        if (collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH))
+            return (R) container;
+        return collector.finisher().apply(container);
+    }
+
+    @Override
+    public Optional<T> min(Comparator<? super T> comparator) {
+        AssertIntrinsics.kexNotNull(comparator);
+        return reduce(BinaryOperator.minBy(comparator));
+    }
+
+    @Override
+    public Optional<T> max(Comparator<? super T> comparator) {
+        AssertIntrinsics.kexNotNull(comparator);
+        return reduce(BinaryOperator.maxBy(comparator));
+    }
+
+    @Override
+    public long count() {
+        if (array != null)
+            return fence - origin;
+        long[] count = new long[1];
+        evaluate(v -> count[0]++);
+        return count[0];
+    }
+
+    @Override
+    public boolean anyMatch(Predicate<? super T> predicate) {
+        return !noneMatch(predicate);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean allMatch(Predicate<? super T> predicate) {
+        AssertIntrinsics.kexNotNull(predicate);
+        return firstMatch(v -> !predicate.test((T) v), new Object[1]) == fence;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean noneMatch(Predicate<? super T> predicate) {
+        AssertIntrinsics.kexNotNull(predicate);
+        return firstMatch(v -> predicate.test((T) v), new Object[1]) == fence;
+    }
+
+    /**
+     * Without filters the first element is the stage of the first index. With
+     * them, it is the first element that is not skipped, and the stage never
+     * runs past its index.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Optional<T> findFirst() {
+        if (fence == origin)
+            return Optional.empty();
+        if (!filtered)
+            return Optional.of((T) stage.apply(origin));
+        Object[] first = new Object[1];
+        if (firstMatch(v -> true, first) == fence)
+            return Optional.empty();
+        return Optional.of((T) first[0]);
+    }
+
+    @Override
+    public Optional<T> findAny() {
+        return findFirst();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        if (array != null)
+            return new ArraySpliterators.ArraySpliterator<>(array, origin, fence, Spliterator.ORDERED);
+        return fallback().spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return false;
+    }
+
+    @Override
+    public Stream<T> sequential() {
+        return this;
+    }
+
+    @Override
+    public Stream<T> parallel() {
+        return this;
+    }
+
+    @Override
+    public Stream<T> unordered() {
+        return this;
+    }
+
+    @Override
+    public Stream<T> onClose(Runnable closeHandler) {
+        return fallback().onClose(closeHandler);
+    }
+
+    @Override
+    public void close() {
+        // nothing
+    }
+}
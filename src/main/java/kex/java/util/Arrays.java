@@ -263,20 +263,43 @@ public class Arrays {
     }
 
     public static void sort(Object[] a) {
-        // nothing
+        sort(a, 0, a.length, null);
     }
 
     public static void sort(Object[] a, int fromIndex, int toIndex) {
-        // nothing
+        sort(a, fromIndex, toIndex, null);
     }
 
     public static <T> void sort(T[] a, Comparator<? super T> c) {
-        // nothing
+        sort(a, 0, a.length, c);
     }
 
+    /**
+     * The sorted range is a fresh array taken at an unknown permutation of
+     * the original one: {@code order[i]} is the original position of the
+     * i-th element. Adjacent elements are ordered, and equal ones keep their
+     * original order as in the stable JDK merge sort. For a consistent
+     * comparator these two constraints already make the positions distinct,
+     * so {@code order} is a permutation of the range.
+     */
+    @SuppressWarnings("unchecked")
     public static <T> void sort(T[] a, int fromIndex, int toIndex,
                                 Comparator<? super T> c) {
-        // nothing
+        rangeCheck(a.length, fromIndex, toIndex);
+        if (c == null) c = NaturalOrder.INSTANCE;
+        Comparator<? super T> comparator = c;
+        int length = toIndex - fromIndex;
+        int[] order = UnknownIntrinsics.kexUnknown();
+        AssertIntrinsics.kexNotNull(order);
+        AssertIntrinsics.kexAssume(order.length == length);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, length, i ->
+                order[i] >= fromIndex && order[i] < toIndex));
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, length - 1, i -> {
+            int cmp = comparator.compare(a[order[i]], a[order[i + 1]]);
+            return cmp < 0 || (cmp == 0 && order[i] < order[i + 1]);
+        }));
+        Object[] sorted = CollectionIntrinsics.generateObjectArray(length, i -> a[order[i]]);
+        CollectionIntrinsics.forEach(0, length, i -> a[fromIndex + i] = (T) sorted[i]);
     }
 
     public static <T> void parallelPrefix(T[] array, BinaryOperator<T> op) {
@@ -620,7 +643,10 @@ public class Arrays {
 
     // todo copies
     public static <T, U> T[] copyOf(U[] original, int newLength, Class<? extends T[]> newType) {
-        return CollectionIntrinsics.generateObjectArray(Math.max(original.length, newLength), index -> (T) original[index]);
+        return CollectionIntrinsics.generateObjectArray(newLength, index -> {
+            if (index < original.length) return (T) original[index];
+            else return null;
+        });
     }
 
     public static byte[] copyOf(byte[] original, int newLength) {
@@ -764,6 +790,7 @@ public class Arrays {
     public static <T> List<T> asList(T... a) {
         ArrayList<T> res = new ArrayList<T>();
         res.elementData = a;
+        res.size = a.length;
         return res;
     }
 
@@ -928,43 +955,52 @@ public class Arrays {
     }
 
     public static <T> Spliterator<T> spliterator(T[] array) {
-        return UnknownIntrinsics.kexUnknown();
+        return spliterator(array, 0, array.length);
     }
 
     public static <T> Spliterator<T> spliterator(T[] array, int startInclusive, int endExclusive) {
-        return UnknownIntrinsics.kexUnknown();
+        rangeCheck(array.length, startInclusive, endExclusive);
+        return new ArraySpliterators.ArraySpliterator<>(array, startInclusive, endExclusive,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE);
     }
 
     public static Spliterator.OfInt spliterator(int[] array) {
-        return UnknownIntrinsics.kexUnknown();
+        return spliterator(array, 0, array.length);
     }
 
     public static Spliterator.OfInt spliterator(int[] array, int startInclusive, int endExclusive) {
-        return UnknownIntrinsics.kexUnknown();
+        rangeCheck(array.length, startInclusive, endExclusive);
+        return new ArraySpliterators.IntArraySpliterator(array, startInclusive, endExclusive,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE);
     }
 
     public static Spliterator.OfLong spliterator(long[] array) {
-        return UnknownIntrinsics.kexUnknown();
+        return spliterator(array, 0, array.length);
     }
 
     public static Spliterator.OfLong spliterator(long[] array, int startInclusive, int endExclusive) {
-        return UnknownIntrinsics.kexUnknown();
+        rangeCheck(array.length, startInclusive, endExclusive);
+        return new ArraySpliterators.LongArraySpliterator(array, startInclusive, endExclusive,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE);
     }
 
     public static Spliterator.OfDouble spliterator(double[] array) {
-        return UnknownIntrinsics.kexUnknown();
+        return spliterator(array, 0, array.length);
     }
 
     public static Spliterator.OfDouble spliterator(double[] array, int startInclusive, int endExclusive) {
-        return UnknownIntrinsics.kexUnknown();
+        rangeCheck(array.length, startInclusive, endExclusive);
+        return new ArraySpliterators.DoubleArraySpliterator(array, startInclusive, endExclusive,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE);
     }
 
     public static <T> Stream<T> stream(T[] array) {
-        return UnknownIntrinsics.kexUnknown();
+        return stream(array, 0, array.length);
     }
 
     public static <T> Stream<T> stream(T[] array, int startInclusive, int endExclusive) {
-        return UnknownIntrinsics.kexUnknown();
+        rangeCheck(array.length, startInclusive, endExclusive);
+        return new ArrayStream<>(array, startInclusive, endExclusive);
     }
 
     public static IntStream stream(int[] array) {
@@ -972,7 +1008,8 @@ public class Arrays {
     }
 
     public static IntStream stream(int[] array, int startInclusive, int endExclusive) {
-        return StreamSupport.intStream(spliterator(array, startInclusive, endExclusive), false);
+        rangeCheck(array.length, startInclusive, endExclusive);
+        return new IntArrayStream(array, startInclusive, endExclusive);
     }
 
     public static LongStream stream(long[] array) {
@@ -991,6 +1028,12 @@ public class Arrays {
         return StreamSupport.doubleStream(spliterator(array, startInclusive, endExclusive), false);
     }
 
+    private static void rangeCheck(int arrayLength, int fromIndex, int toIndex) {
+        AssertIntrinsics.kexAssume(0 <= fromIndex);
+        AssertIntrinsics.kexAssume(fromIndex <= toIndex);
+        AssertIntrinsics.kexAssume(toIndex <= arrayLength);
+    }
+
 
     private Arrays() {
     }
@@ -0,0 +1,3020 @@
+package kex.java.util;
+/*
+ * Copyright (c) 1997, 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * This class consists exclusively of static methods that operate on or return
+ * collections.  It contains polymorphic algorithms that operate on
+ * collections, "wrappers", which return a new collection backed by a
+ * specified collection, and a few other odds and ends.
+ *
+ * <p>Algorithms are expressed as quantified constraints over the elements,
+ * like the ones of {@link Arrays}: the result of {@code min} or {@code max}
+ * is an unknown index constrained by all the elements, the one of
+ * {@code binarySearch} only by the elements around it, {@code sort} is a
+ * sortedness assumption. Wrappers are thin views that delegate to the
+ * wrapped collection. The model is single-threaded, so synchronized wrappers
+ * do not lock, and checked wrappers check the type of every inserted element
+ * like the JDK ones.
+ *
+ * @author Josh Bloch
+ * @author Neal Gafter
+ * @see Collection
+ * @see Set
+ * @see List
+ * @see Map
+ * @since 1.2
+ */
+public class Collections {
+    // Suppresses default constructor, ensuring non-instantiability.
+    private Collections() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int compare(Object first, Object second, Comparator<? super T> c) {
+        return c == null ? ((Comparable<Object>) first).compareTo(second)
+                : c.compare((T) first, (T) second);
+    }
+
+    // Algorithms
+
+    public static <T extends Comparable<? super T>> void sort(List<T> list) {
+        list.sort(null);
+    }
+
+    public static <T> void sort(List<T> list, Comparator<? super T> c) {
+        list.sort(c);
+    }
+
+    public static <T> int binarySearch(List<? extends Comparable<? super T>> list, T key) {
+        return indexedBinarySearch(list, key, null);
+    }
+
+    public static <T> int binarySearch(List<? extends T> list, T key, Comparator<? super T> c) {
+        return indexedBinarySearch(list, key, c);
+    }
+
+    /**
+     * The result is an unknown index. A found index holds an element equal
+     * to the key, any of the duplicates may be found. Otherwise the insertion
+     * point lies between an element less than the key and an element greater
+     * than it, which is where the JDK search stops even on an unsorted list.
+     */
+    private static <T> int indexedBinarySearch(List<?> list, Object key, Comparator<? super T> c) {
+        int size = list.size();
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -(size + 1));
+        AssertIntrinsics.kexAssume(result < size);
+        if (result >= 0) {
+            AssertIntrinsics.kexAssume(compare(list.get(result), key, c) == 0);
+        } else {
+            int point = -(result + 1);  // key not found
+            AssertIntrinsics.kexAssume(point == 0 || compare(list.get(point - 1), key, c) < 0);
+            AssertIntrinsics.kexAssume(point == size || compare(list.get(point), key, c) > 0);
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static void reverse(List<?> list) {
+        List l = list;
+        int size = l.size();
+        CollectionIntrinsics.forEach(0, size >> 1, i -> l.set(i, l.set(size - 1 - i, l.get(i))));
+    }
+
+    public static void shuffle(List<?> list) {
+        shuffle(list, new Random());
+    }
+
+    public static void shuffle(List<?> list, Random rnd) {
+        int size = list.size();
+        CollectionIntrinsics.forEach(0, size - 1, k -> {
+            int i = size - 1 - k;
+            swap(list, i, rnd.nextInt(i + 1));
+        });
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static void swap(List<?> list, int i, int j) {
+        final List l = list;
+        l.set(i, l.set(j, l.get(i)));
+    }
+
+    public static <T> void fill(List<? super T> list, T obj) {
+        CollectionIntrinsics.forEach(0, list.size(), i -> list.set(i, obj));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> void copy(List<? super T> dest, List<? extends T> src) {
+        int srcSize = src.size();
+        if (srcSize > dest.size())
+            throw new IndexOutOfBoundsException("Source does not fit in dest");
+        Object[] elements = src.toArray();
+        CollectionIntrinsics.forEach(0, srcSize, i -> dest.set(i, (T) elements[i]));
+    }
+
+    public static <T extends Object & Comparable<? super T>> T min(Collection<? extends T> coll) {
+        return min(coll, null);
+    }
+
+    /**
+     * The result is the first of the least elements in iteration order, the
+     * same one the JDK scan finds.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T min(Collection<? extends T> coll, Comparator<? super T> comp) {
+        Object[] elements = coll.toArray();
+        if (elements.length == 0)
+            throw new NoSuchElementException();
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index < elements.length);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, elements.length, i -> {
+            int c = compare(elements[i], elements[index], comp);
+            return i < index ? c > 0 : c >= 0;
+        }));
+        return (T) elements[index];
+    }
+
+    public static <T extends Object & Comparable<? super T>> T max(Collection<? extends T> coll) {
+        return max(coll, null);
+    }
+
+    /**
+     * The result is the first of the greatest elements in iteration order,
+     * the same one the JDK scan finds.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T max(Collection<? extends T> coll, Comparator<? super T> comp) {
+        Object[] elements = coll.toArray();
+        if (elements.length == 0)
+            throw new NoSuchElementException();
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index < elements.length);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, elements.length, i -> {
+            int c = compare(elements[i], elements[index], comp);
+            return i < index ? c < 0 : c <= 0;
+        }));
+        return (T) elements[index];
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static void rotate(List<?> list, int distance) {
+        List l = list;
+        int size = l.size();
+        if (size == 0)
+            return;
+        int shift = distance % size;
+        if (shift < 0)
+            shift += size;
+        if (shift == 0)
+            return;
+        int d = shift;
+        Object[] elements = l.toArray();
+        CollectionIntrinsics.forEach(0, size, i -> {
+            int target = i + d < size ? i + d : i + d - size;
+            l.set(target, elements[i]);
+        });
+    }
+
+    public static <T> boolean replaceAll(List<T> list, T oldVal, T newVal) {
+        int size = list.size();
+        boolean result = !CollectionIntrinsics.forAll(0, size, i -> !ObjectIntrinsics.equals(oldVal, list.get(i)));
+        if (result) {
+            CollectionIntrinsics.forEach(0, size, i -> {
+                if (ObjectIntrinsics.equals(oldVal, list.get(i)))
+                    list.set(i, newVal);
+            });
+        }
+        return result;
+    }
+
+    private static boolean matchesAt(List<?> source, List<?> target, int position) {
+        return CollectionIntrinsics.forAll(0, target.size(), j ->
+                ObjectIntrinsics.equals(target.get(j), source.get(position + j)));
+    }
+
+    public static int indexOfSubList(List<?> source, List<?> target) {
+        int maxCandidate = source.size() - target.size();
+        if (maxCandidate < 0)
+            return -1;
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result <= maxCandidate);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, maxCandidate + 1, i -> !matchesAt(source, target, i)));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, result, i -> !matchesAt(source, target, i)));
+            AssertIntrinsics.kexAssume(matchesAt(source, target, result));
+        }
+        return result;
+    }
+
+    public static int lastIndexOfSubList(List<?> source, List<?> target) {
+        int maxCandidate = source.size() - target.size();
+        if (maxCandidate < 0)
+            return -1;
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result <= maxCandidate);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, maxCandidate + 1, i -> !matchesAt(source, target, i)));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, maxCandidate + 1, i -> !matchesAt(source, target, i)));
+            AssertIntrinsics.kexAssume(matchesAt(source, target, result));
+        }
+        return result;
+    }
+
+    // Unmodifiable Wrappers
+
+    public static <T> Collection<T> unmodifiableCollection(Collection<? extends T> c) {
+        return new UnmodifiableCollection<>(c);
+    }
+
+    static class UnmodifiableCollection<E> implements Collection<E>, java.io.Serializable {
+        private static final long serialVersionUID = 1820017752578914078L;
+
+        final Collection<? extends E> c;
+
+        UnmodifiableCollection(Collection<? extends E> c) {
+            if (c == null)
+                throw new NullPointerException();
+            this.c = c;
+        }
+
+        public int size() {
+            return c.size();
+        }
+
+        public boolean isEmpty() {
+            return c.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return c.contains(o);
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return c.toArray();
+        }
+
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            return c.toArray(a);
+        }
+
+        public String toString() {
+            return c.toString();
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return new UnmodifiableIterator<>(c.iterator());
+        }
+
+        public boolean add(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean remove(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean containsAll(@NotNull Collection<?> coll) {
+            return c.containsAll(coll);
+        }
+
+        public boolean addAll(@NotNull Collection<? extends E> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean removeAll(@NotNull Collection<?> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean retainAll(@NotNull Collection<?> coll) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            c.forEach(action);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Spliterator<E> spliterator() {
+            return (Spliterator<E>) c.spliterator();
+        }
+    }
+
+    static class UnmodifiableIterator<E> implements Iterator<E> {
+        private final Iterator<? extends E> i;
+
+        UnmodifiableIterator(Iterator<? extends E> i) {
+            this.i = i;
+        }
+
+        public boolean hasNext() {
+            return i.hasNext();
+        }
+
+        public E next() {
+            return i.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static <T> Set<T> unmodifiableSet(Set<? extends T> s) {
+        return new UnmodifiableSet<>(s);
+    }
+
+    static class UnmodifiableSet<E> extends UnmodifiableCollection<E>
+            implements Set<E>, java.io.Serializable {
+        private static final long serialVersionUID = -9215047833775013803L;
+
+        UnmodifiableSet(Set<? extends E> s) {
+            super(s);
+        }
+
+        public boolean equals(Object o) {
+            return o == this || c.equals(o);
+        }
+
+        public int hashCode() {
+            return c.hashCode();
+        }
+    }
+
+    public static <T> SortedSet<T> unmodifiableSortedSet(SortedSet<T> s) {
+        return new UnmodifiableSortedSet<>(s);
+    }
+
+    static class UnmodifiableSortedSet<E> extends UnmodifiableSet<E>
+            implements SortedSet<E>, java.io.Serializable {
+        private static final long serialVersionUID = -4929149591599911165L;
+        private final SortedSet<E> ss;
+
+        UnmodifiableSortedSet(SortedSet<E> s) {
+            super(s);
+            ss = s;
+        }
+
+        public Comparator<? super E> comparator() {
+            return ss.comparator();
+        }
+
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return new UnmodifiableSortedSet<>(ss.subSet(fromElement, toElement));
+        }
+
+        public SortedSet<E> headSet(E toElement) {
+            return new UnmodifiableSortedSet<>(ss.headSet(toElement));
+        }
+
+        public SortedSet<E> tailSet(E fromElement) {
+            return new UnmodifiableSortedSet<>(ss.tailSet(fromElement));
+        }
+
+        public E first() {
+            return ss.first();
+        }
+
+        public E last() {
+            return ss.last();
+        }
+    }
+
+    public static <T> NavigableSet<T> unmodifiableNavigableSet(NavigableSet<T> s) {
+        return new UnmodifiableNavigableSet<>(s);
+    }
+
+    static class UnmodifiableNavigableSet<E> extends UnmodifiableSortedSet<E>
+            implements NavigableSet<E>, java.io.Serializable {
+        private static final long serialVersionUID = -6027448201786391929L;
+        private final NavigableSet<E> ns;
+
+        UnmodifiableNavigableSet(NavigableSet<E> s) {
+            super(s);
+            ns = s;
+        }
+
+        public E lower(E e) {
+            return ns.lower(e);
+        }
+
+        public E floor(E e) {
+            return ns.floor(e);
+        }
+
+        public E ceiling(E e) {
+            return ns.ceiling(e);
+        }
+
+        public E higher(E e) {
+            return ns.higher(e);
+        }
+
+        public E pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        public E pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        public NavigableSet<E> descendingSet() {
+            return new UnmodifiableNavigableSet<>(ns.descendingSet());
+        }
+
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return new UnmodifiableNavigableSet<>(ns.subSet(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return new UnmodifiableNavigableSet<>(ns.headSet(toElement, inclusive));
+        }
+
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return new UnmodifiableNavigableSet<>(ns.tailSet(fromElement, inclusive));
+        }
+    }
+
+    public static <T> List<T> unmodifiableList(List<? extends T> list) {
+        return (list instanceof RandomAccess ?
+                new UnmodifiableRandomAccessList<>(list) :
+                new UnmodifiableList<>(list));
+    }
+
+    static class UnmodifiableList<E> extends UnmodifiableCollection<E>
+            implements List<E> {
+        private static final long serialVersionUID = -283967356065247728L;
+
+        final List<? extends E> list;
+
+        UnmodifiableList(List<? extends E> list) {
+            super(list);
+            this.list = list;
+        }
+
+        public boolean equals(Object o) {
+            return o == this || list.equals(o);
+        }
+
+        public int hashCode() {
+            return list.hashCode();
+        }
+
+        public E get(int index) {
+            return list.get(index);
+        }
+
+        public E set(int index, E element) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void add(int index, E element) {
+            throw new UnsupportedOperationException();
+        }
+
+        public E remove(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        public int indexOf(Object o) {
+            return list.indexOf(o);
+        }
+
+        public int lastIndexOf(Object o) {
+            return list.lastIndexOf(o);
+        }
+
+        public boolean addAll(int index, @NotNull Collection<? extends E> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+            throw new UnsupportedOperationException();
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator() {
+            return listIterator(0);
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator(final int index) {
+            return new ListIterator<E>() {
+                private final ListIterator<? extends E> i = list.listIterator(index);
+
+                public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                public E next() {
+                    return i.next();
+                }
+
+                public boolean hasPrevious() {
+                    return i.hasPrevious();
+                }
+
+                public E previous() {
+                    return i.previous();
+                }
+
+                public int nextIndex() {
+                    return i.nextIndex();
+                }
+
+                public int previousIndex() {
+                    return i.previousIndex();
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                public void set(E e) {
+                    throw new UnsupportedOperationException();
+                }
+
+                public void add(E e) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new UnmodifiableList<>(list.subList(fromIndex, toIndex));
+        }
+    }
+
+    static class UnmodifiableRandomAccessList<E> extends UnmodifiableList<E>
+            implements RandomAccess {
+        private static final long serialVersionUID = -2542308836966382001L;
+
+        UnmodifiableRandomAccessList(List<? extends E> list) {
+            super(list);
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new UnmodifiableRandomAccessList<>(list.subList(fromIndex, toIndex));
+        }
+    }
+
+    public static <K, V> Map<K, V> unmodifiableMap(Map<? extends K, ? extends V> m) {
+        return new UnmodifiableMap<>(m);
+    }
+
+    static class UnmodifiableMap<K, V> implements Map<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = -1034234728574286014L;
+
+        private final Map<? extends K, ? extends V> m;
+
+        UnmodifiableMap(Map<? extends K, ? extends V> m) {
+            if (m == null)
+                throw new NullPointerException();
+            this.m = m;
+        }
+
+        public int size() {
+            return m.size();
+        }
+
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        public boolean containsKey(Object key) {
+            return m.containsKey(key);
+        }
+
+        public boolean containsValue(Object val) {
+            return m.containsValue(val);
+        }
+
+        public V get(Object key) {
+            return m.get(key);
+        }
+
+        public V put(K key, V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public V remove(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void putAll(@NotNull Map<? extends K, ? extends V> m) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @NotNull
+        public Set<K> keySet() {
+            return unmodifiableSet(m.keySet());
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @NotNull
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new UnmodifiableEntrySet<>((Set) m.entrySet());
+        }
+
+        @NotNull
+        public Collection<V> values() {
+            return unmodifiableCollection(m.values());
+        }
+
+        public boolean equals(Object o) {
+            return o == this || m.equals(o);
+        }
+
+        public int hashCode() {
+            return m.hashCode();
+        }
+
+        public String toString() {
+            return m.toString();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getOrDefault(Object k, V defaultValue) {
+            // Safe cast as we don't change the value
+            return ((Map<K, V>) m).getOrDefault(k, defaultValue);
+        }
+
+        @Override
+        public void forEach(java.util.function.BiConsumer<? super K, ? super V> action) {
+            m.forEach(action);
+        }
+    }
+
+    /**
+     * Entry set of an unmodifiable map, its entries do not support
+     * {@code setValue}.
+     */
+    static class UnmodifiableEntrySet<K, V> extends UnmodifiableSet<Map.Entry<K, V>> {
+        private static final long serialVersionUID = 7854390611657943733L;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        UnmodifiableEntrySet(Set<? extends Map.Entry<? extends K, ? extends V>> s) {
+            super((Set) s);
+        }
+
+        @NotNull
+        public Iterator<Map.Entry<K, V>> iterator() {
+            Iterator<? extends Map.Entry<? extends K, ? extends V>> i = c.iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                public Map.Entry<K, V> next() {
+                    Map.Entry<? extends K, ? extends V> e = i.next();
+                    return new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue());
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public void forEach(Consumer<? super Map.Entry<K, V>> action) {
+            AssertIntrinsics.kexNotNull(action);
+            c.forEach(e -> action.accept(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue())));
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            Object[] a = c.toArray();
+            return CollectionIntrinsics.generateObjectArray(a.length, i -> {
+                Map.Entry<?, ?> e = (Map.Entry<?, ?>) a[i];
+                return new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue());
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            Object[] entries = toArray();
+            if (a.length < entries.length)
+                return (T[]) Arrays.copyOf(entries, entries.length, a.getClass());
+            System.arraycopy(entries, 0, a, 0, entries.length);
+            if (a.length > entries.length)
+                a[entries.length] = null;
+            return a;
+        }
+    }
+
+    public static <K, V> SortedMap<K, V> unmodifiableSortedMap(SortedMap<K, ? extends V> m) {
+        return new UnmodifiableSortedMap<>(m);
+    }
+
+    static class UnmodifiableSortedMap<K, V> extends UnmodifiableMap<K, V>
+            implements SortedMap<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = -8806743815996713206L;
+
+        private final SortedMap<K, ? extends V> sm;
+
+        UnmodifiableSortedMap(SortedMap<K, ? extends V> m) {
+            super(m);
+            sm = m;
+        }
+
+        public Comparator<? super K> comparator() {
+            return sm.comparator();
+        }
+
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return new UnmodifiableSortedMap<>(sm.subMap(fromKey, toKey));
+        }
+
+        public SortedMap<K, V> headMap(K toKey) {
+            return new UnmodifiableSortedMap<>(sm.headMap(toKey));
+        }
+
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return new UnmodifiableSortedMap<>(sm.tailMap(fromKey));
+        }
+
+        public K firstKey() {
+            return sm.firstKey();
+        }
+
+        public K lastKey() {
+            return sm.lastKey();
+        }
+    }
+
+    public static <K, V> NavigableMap<K, V> unmodifiableNavigableMap(NavigableMap<K, ? extends V> m) {
+        return new UnmodifiableNavigableMap<>(m);
+    }
+
+    static class UnmodifiableNavigableMap<K, V> extends UnmodifiableSortedMap<K, V>
+            implements NavigableMap<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = -4858195264774772197L;
+
+        private final NavigableMap<K, ? extends V> nm;
+
+        UnmodifiableNavigableMap(NavigableMap<K, ? extends V> m) {
+            super(m);
+            nm = m;
+        }
+
+        private static <K, V> Map.Entry<K, V> immutable(Map.Entry<K, ? extends V> e) {
+            return e == null ? null : new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue());
+        }
+
+        public K lowerKey(K key) {
+            return nm.lowerKey(key);
+        }
+
+        public K floorKey(K key) {
+            return nm.floorKey(key);
+        }
+
+        public K ceilingKey(K key) {
+            return nm.ceilingKey(key);
+        }
+
+        public K higherKey(K key) {
+            return nm.higherKey(key);
+        }
+
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return immutable(nm.lowerEntry(key));
+        }
+
+        public Map.Entry<K, V> floorEntry(K key) {
+            return immutable(nm.floorEntry(key));
+        }
+
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return immutable(nm.ceilingEntry(key));
+        }
+
+        public Map.Entry<K, V> higherEntry(K key) {
+            return immutable(nm.higherEntry(key));
+        }
+
+        public Map.Entry<K, V> firstEntry() {
+            return immutable(nm.firstEntry());
+        }
+
+        public Map.Entry<K, V> lastEntry() {
+            return immutable(nm.lastEntry());
+        }
+
+        public Map.Entry<K, V> pollFirstEntry() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Map.Entry<K, V> pollLastEntry() {
+            throw new UnsupportedOperationException();
+        }
+
+        public NavigableMap<K, V> descendingMap() {
+            return unmodifiableNavigableMap(nm.descendingMap());
+        }
+
+        public NavigableSet<K> navigableKeySet() {
+            return unmodifiableNavigableSet(nm.navigableKeySet());
+        }
+
+        public NavigableSet<K> descendingKeySet() {
+            return unmodifiableNavigableSet(nm.descendingKeySet());
+        }
+
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            return unmodifiableNavigableMap(nm.subMap(fromKey, fromInclusive, toKey, toInclusive));
+        }
+
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return unmodifiableNavigableMap(nm.headMap(toKey, inclusive));
+        }
+
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return unmodifiableNavigableMap(nm.tailMap(fromKey, inclusive));
+        }
+    }
+
+    // Synchronized Wrappers: the model is single-threaded, so the views only
+    // delegate to the backing collections without locking
+
+    public static <T> Collection<T> synchronizedCollection(Collection<T> c) {
+        return new SynchronizedCollection<>(c);
+    }
+
+    static class SynchronizedCollection<E> implements Collection<E>, java.io.Serializable {
+        private static final long serialVersionUID = 3053995032091335093L;
+
+        final Collection<E> c;
+
+        SynchronizedCollection(Collection<E> c) {
+            if (c == null)
+                throw new NullPointerException();
+            this.c = c;
+        }
+
+        public int size() {
+            return c.size();
+        }
+
+        public boolean isEmpty() {
+            return c.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return c.contains(o);
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return c.toArray();
+        }
+
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            return c.toArray(a);
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return c.iterator();
+        }
+
+        public boolean add(E e) {
+            return c.add(e);
+        }
+
+        public boolean remove(Object o) {
+            return c.remove(o);
+        }
+
+        public boolean containsAll(@NotNull Collection<?> coll) {
+            return c.containsAll(coll);
+        }
+
+        public boolean addAll(@NotNull Collection<? extends E> coll) {
+            return c.addAll(coll);
+        }
+
+        public boolean removeAll(@NotNull Collection<?> coll) {
+            return c.removeAll(coll);
+        }
+
+        public boolean retainAll(@NotNull Collection<?> coll) {
+            return c.retainAll(coll);
+        }
+
+        public void clear() {
+            c.clear();
+        }
+
+        public String toString() {
+            return c.toString();
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            c.forEach(action);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            return c.removeIf(filter);
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return c.spliterator();
+        }
+    }
+
+    public static <T> Set<T> synchronizedSet(Set<T> s) {
+        return new SynchronizedSet<>(s);
+    }
+
+    static class SynchronizedSet<E> extends SynchronizedCollection<E> implements Set<E> {
+        private static final long serialVersionUID = 487447009682186044L;
+
+        SynchronizedSet(Set<E> s) {
+            super(s);
+        }
+
+        public boolean equals(Object o) {
+            return this == o || c.equals(o);
+        }
+
+        public int hashCode() {
+            return c.hashCode();
+        }
+    }
+
+    public static <T> SortedSet<T> synchronizedSortedSet(SortedSet<T> s) {
+        return new SynchronizedSortedSet<>(s);
+    }
+
+    static class SynchronizedSortedSet<E> extends SynchronizedSet<E> implements SortedSet<E> {
+        private static final long serialVersionUID = 8695801310862127406L;
+
+        private final SortedSet<E> ss;
+
+        SynchronizedSortedSet(SortedSet<E> s) {
+            super(s);
+            ss = s;
+        }
+
+        public Comparator<? super E> comparator() {
+            return ss.comparator();
+        }
+
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return new SynchronizedSortedSet<>(ss.subSet(fromElement, toElement));
+        }
+
+        public SortedSet<E> headSet(E toElement) {
+            return new SynchronizedSortedSet<>(ss.headSet(toElement));
+        }
+
+        public SortedSet<E> tailSet(E fromElement) {
+            return new SynchronizedSortedSet<>(ss.tailSet(fromElement));
+        }
+
+        public E first() {
+            return ss.first();
+        }
+
+        public E last() {
+            return ss.last();
+        }
+    }
+
+    public static <T> NavigableSet<T> synchronizedNavigableSet(NavigableSet<T> s) {
+        return new SynchronizedNavigableSet<>(s);
+    }
+
+    static class SynchronizedNavigableSet<E> extends SynchronizedSortedSet<E> implements NavigableSet<E> {
+        private static final long serialVersionUID = -5505529816273629798L;
+
+        private final NavigableSet<E> ns;
+
+        SynchronizedNavigableSet(NavigableSet<E> s) {
+            super(s);
+            ns = s;
+        }
+
+        public E lower(E e) {
+            return ns.lower(e);
+        }
+
+        public E floor(E e) {
+            return ns.floor(e);
+        }
+
+        public E ceiling(E e) {
+            return ns.ceiling(e);
+        }
+
+        public E higher(E e) {
+            return ns.higher(e);
+        }
+
+        public E pollFirst() {
+            return ns.pollFirst();
+        }
+
+        public E pollLast() {
+            return ns.pollLast();
+        }
+
+        public NavigableSet<E> descendingSet() {
+            return new SynchronizedNavigableSet<>(ns.descendingSet());
+        }
+
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return new SynchronizedNavigableSet<>(ns.subSet(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return new SynchronizedNavigableSet<>(ns.headSet(toElement, inclusive));
+        }
+
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return new SynchronizedNavigableSet<>(ns.tailSet(fromElement, inclusive));
+        }
+    }
+
+    public static <T> List<T> synchronizedList(List<T> list) {
+        return (list instanceof RandomAccess ?
+                new SynchronizedRandomAccessList<>(list) :
+                new SynchronizedList<>(list));
+    }
+
+    static class SynchronizedList<E> extends SynchronizedCollection<E> implements List<E> {
+        private static final long serialVersionUID = -7754090372962971524L;
+
+        final List<E> list;
+
+        SynchronizedList(List<E> list) {
+            super(list);
+            this.list = list;
+        }
+
+        public boolean equals(Object o) {
+            return this == o || list.equals(o);
+        }
+
+        public int hashCode() {
+            return list.hashCode();
+        }
+
+        public E get(int index) {
+            return list.get(index);
+        }
+
+        public E set(int index, E element) {
+            return list.set(index, element);
+        }
+
+        public void add(int index, E element) {
+            list.add(index, element);
+        }
+
+        public E remove(int index) {
+            return list.remove(index);
+        }
+
+        public int indexOf(Object o) {
+            return list.indexOf(o);
+        }
+
+        public int lastIndexOf(Object o) {
+            return list.lastIndexOf(o);
+        }
+
+        public boolean addAll(int index, @NotNull Collection<? extends E> c) {
+            return list.addAll(index, c);
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<E> operator) {
+            list.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+            list.sort(c);
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator() {
+            return list.listIterator();
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator(int index) {
+            return list.listIterator(index);
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new SynchronizedList<>(list.subList(fromIndex, toIndex));
+        }
+    }
+
+    static class SynchronizedRandomAccessList<E> extends SynchronizedList<E> implements RandomAccess {
+        private static final long serialVersionUID = 1530674583602358482L;
+
+        SynchronizedRandomAccessList(List<E> list) {
+            super(list);
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new SynchronizedRandomAccessList<>(list.subList(fromIndex, toIndex));
+        }
+    }
+
+    public static <K, V> Map<K, V> synchronizedMap(Map<K, V> m) {
+        return new SynchronizedMap<>(m);
+    }
+
+    static class SynchronizedMap<K, V> implements Map<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = 1978198479659022715L;
+
+        private final Map<K, V> m;
+
+        SynchronizedMap(Map<K, V> m) {
+            if (m == null)
+                throw new NullPointerException();
+            this.m = m;
+        }
+
+        public int size() {
+            return m.size();
+        }
+
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        public boolean containsKey(Object key) {
+            return m.containsKey(key);
+        }
+
+        public boolean containsValue(Object value) {
+            return m.containsValue(value);
+        }
+
+        public V get(Object key) {
+            return m.get(key);
+        }
+
+        public V put(K key, V value) {
+            return m.put(key, value);
+        }
+
+        public V remove(Object key) {
+            return m.remove(key);
+        }
+
+        public void putAll(@NotNull Map<? extends K, ? extends V> map) {
+            m.putAll(map);
+        }
+
+        public void clear() {
+            m.clear();
+        }
+
+        @NotNull
+        public Set<K> keySet() {
+            return new SynchronizedSet<>(m.keySet());
+        }
+
+        @NotNull
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new SynchronizedSet<>(m.entrySet());
+        }
+
+        @NotNull
+        public Collection<V> values() {
+            return new SynchronizedCollection<>(m.values());
+        }
+
+        public boolean equals(Object o) {
+            return this == o || m.equals(o);
+        }
+
+        public int hashCode() {
+            return m.hashCode();
+        }
+
+        public String toString() {
+            return m.toString();
+        }
+
+        @Override
+        public V getOrDefault(Object k, V defaultValue) {
+            return m.getOrDefault(k, defaultValue);
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            m.forEach(action);
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+            m.replaceAll(function);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return m.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return m.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return m.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            return m.replace(key, value);
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            return m.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            return m.computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            return m.compute(key, remappingFunction);
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            return m.merge(key, value, remappingFunction);
+        }
+    }
+
+    public static <K, V> SortedMap<K, V> synchronizedSortedMap(SortedMap<K, V> m) {
+        return new SynchronizedSortedMap<>(m);
+    }
+
+    static class SynchronizedSortedMap<K, V> extends SynchronizedMap<K, V> implements SortedMap<K, V> {
+        private static final long serialVersionUID = -8798146769416483793L;
+
+        private final SortedMap<K, V> sm;
+
+        SynchronizedSortedMap(SortedMap<K, V> m) {
+            super(m);
+            sm = m;
+        }
+
+        public Comparator<? super K> comparator() {
+            return sm.comparator();
+        }
+
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return new SynchronizedSortedMap<>(sm.subMap(fromKey, toKey));
+        }
+
+        public SortedMap<K, V> headMap(K toKey) {
+            return new SynchronizedSortedMap<>(sm.headMap(toKey));
+        }
+
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return new SynchronizedSortedMap<>(sm.tailMap(fromKey));
+        }
+
+        public K firstKey() {
+            return sm.firstKey();
+        }
+
+        public K lastKey() {
+            return sm.lastKey();
+        }
+    }
+
+    public static <K, V> NavigableMap<K, V> synchronizedNavigableMap(NavigableMap<K, V> m) {
+        return new SynchronizedNavigableMap<>(m);
+    }
+
+    static class SynchronizedNavigableMap<K, V> extends SynchronizedSortedMap<K, V>
+            implements NavigableMap<K, V> {
+        private static final long serialVersionUID = 699392247599746807L;
+
+        private final NavigableMap<K, V> nm;
+
+        SynchronizedNavigableMap(NavigableMap<K, V> m) {
+            super(m);
+            nm = m;
+        }
+
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return nm.lowerEntry(key);
+        }
+
+        public K lowerKey(K key) {
+            return nm.lowerKey(key);
+        }
+
+        public Map.Entry<K, V> floorEntry(K key) {
+            return nm.floorEntry(key);
+        }
+
+        public K floorKey(K key) {
+            return nm.floorKey(key);
+        }
+
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return nm.ceilingEntry(key);
+        }
+
+        public K ceilingKey(K key) {
+            return nm.ceilingKey(key);
+        }
+
+        public Map.Entry<K, V> higherEntry(K key) {
+            return nm.higherEntry(key);
+        }
+
+        public K higherKey(K key) {
+            return nm.higherKey(key);
+        }
+
+        public Map.Entry<K, V> firstEntry() {
+            return nm.firstEntry();
+        }
+
+        public Map.Entry<K, V> lastEntry() {
+            return nm.lastEntry();
+        }
+
+        public Map.Entry<K, V> pollFirstEntry() {
+            return nm.pollFirstEntry();
+        }
+
+        public Map.Entry<K, V> pollLastEntry() {
+            return nm.pollLastEntry();
+        }
+
+        public NavigableMap<K, V> descendingMap() {
+            return new SynchronizedNavigableMap<>(nm.descendingMap());
+        }
+
+        public NavigableSet<K> navigableKeySet() {
+            return new SynchronizedNavigableSet<>(nm.navigableKeySet());
+        }
+
+        public NavigableSet<K> descendingKeySet() {
+            return new SynchronizedNavigableSet<>(nm.descendingKeySet());
+        }
+
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            return new SynchronizedNavigableMap<>(nm.subMap(fromKey, fromInclusive, toKey, toInclusive));
+        }
+
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return new SynchronizedNavigableMap<>(nm.headMap(toKey, inclusive));
+        }
+
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return new SynchronizedNavigableMap<>(nm.tailMap(fromKey, inclusive));
+        }
+    }
+
+    // Dynamically typesafe collection wrappers
+
+    /**
+     * Throws {@link ClassCastException} if the non-null value is not an
+     * instance of the type.
+     */
+    static <T> T typeCheck(Object o, Class<T> type, String kind) {
+        if (o != null && !type.isInstance(o))
+            throw new ClassCastException("Attempt to insert " + o.getClass() +
+                    " " + kind + " into collection with " + kind + " type " + type);
+        return type.cast(o);
+    }
+
+    public static <E> Collection<E> checkedCollection(Collection<E> c, Class<E> type) {
+        return new CheckedCollection<>(c, type);
+    }
+
+    static class CheckedCollection<E> implements Collection<E>, java.io.Serializable {
+        private static final long serialVersionUID = 1578914078182001775L;
+
+        final Collection<E> c;
+        final Class<E> type;
+
+        CheckedCollection(Collection<E> c, Class<E> type) {
+            if (c == null || type == null)
+                throw new NullPointerException();
+            this.c = c;
+            this.type = type;
+        }
+
+        E typeCheck(Object o) {
+            return Collections.typeCheck(o, type, "element");
+        }
+
+        /**
+         * Checks every element before any of them is added, so a rejected
+         * collection leaves the backing one unchanged.
+         */
+        @SuppressWarnings("unchecked")
+        java.util.List<E> checkedCopyOf(Collection<? extends E> coll) {
+            Object[] a = coll.toArray();
+            CollectionIntrinsics.forEach(0, a.length, i -> typeCheck(a[i]));
+            return Arrays.asList((E[]) a);
+        }
+
+        public int size() {
+            return c.size();
+        }
+
+        public boolean isEmpty() {
+            return c.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return c.contains(o);
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return c.toArray();
+        }
+
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            return c.toArray(a);
+        }
+
+        public String toString() {
+            return c.toString();
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return c.iterator();
+        }
+
+        public boolean add(E e) {
+            return c.add(typeCheck(e));
+        }
+
+        public boolean remove(Object o) {
+            return c.remove(o);
+        }
+
+        public boolean containsAll(@NotNull Collection<?> coll) {
+            return c.containsAll(coll);
+        }
+
+        public boolean addAll(@NotNull Collection<? extends E> coll) {
+            return c.addAll(checkedCopyOf(coll));
+        }
+
+        public boolean removeAll(@NotNull Collection<?> coll) {
+            return c.removeAll(coll);
+        }
+
+        public boolean retainAll(@NotNull Collection<?> coll) {
+            return c.retainAll(coll);
+        }
+
+        public void clear() {
+            c.clear();
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            c.forEach(action);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            return c.removeIf(filter);
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return c.spliterator();
+        }
+    }
+
+    public static <E> Queue<E> checkedQueue(Queue<E> queue, Class<E> type) {
+        return new CheckedQueue<>(queue, type);
+    }
+
+    static class CheckedQueue<E> extends CheckedCollection<E> implements Queue<E>, java.io.Serializable {
+        private static final long serialVersionUID = 1433151992604707767L;
+
+        final Queue<E> queue;
+
+        CheckedQueue(Queue<E> queue, Class<E> elementType) {
+            super(queue, elementType);
+            this.queue = queue;
+        }
+
+        public E element() {
+            return queue.element();
+        }
+
+        public boolean equals(Object o) {
+            return o == this || c.equals(o);
+        }
+
+        public int hashCode() {
+            return c.hashCode();
+        }
+
+        public E peek() {
+            return queue.peek();
+        }
+
+        public E poll() {
+            return queue.poll();
+        }
+
+        public E remove() {
+            return queue.remove();
+        }
+
+        public boolean offer(E e) {
+            return queue.offer(typeCheck(e));
+        }
+    }
+
+    public static <E> Set<E> checkedSet(Set<E> s, Class<E> type) {
+        return new CheckedSet<>(s, type);
+    }
+
+    static class CheckedSet<E> extends CheckedCollection<E> implements Set<E>, java.io.Serializable {
+        private static final long serialVersionUID = 4694047833775013803L;
+
+        CheckedSet(Set<E> s, Class<E> elementType) {
+            super(s, elementType);
+        }
+
+        public boolean equals(Object o) {
+            return o == this || c.equals(o);
+        }
+
+        public int hashCode() {
+            return c.hashCode();
+        }
+    }
+
+    public static <E> SortedSet<E> checkedSortedSet(SortedSet<E> s, Class<E> type) {
+        return new CheckedSortedSet<>(s, type);
+    }
+
+    static class CheckedSortedSet<E> extends CheckedSet<E> implements SortedSet<E>, java.io.Serializable {
+        private static final long serialVersionUID = 1599911165492914959L;
+
+        private final SortedSet<E> ss;
+
+        CheckedSortedSet(SortedSet<E> s, Class<E> type) {
+            super(s, type);
+            ss = s;
+        }
+
+        public Comparator<? super E> comparator() {
+            return ss.comparator();
+        }
+
+        public E first() {
+            return ss.first();
+        }
+
+        public E last() {
+            return ss.last();
+        }
+
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return checkedSortedSet(ss.subSet(fromElement, toElement), type);
+        }
+
+        public SortedSet<E> headSet(E toElement) {
+            return checkedSortedSet(ss.headSet(toElement), type);
+        }
+
+        public SortedSet<E> tailSet(E fromElement) {
+            return checkedSortedSet(ss.tailSet(fromElement), type);
+        }
+    }
+
+    public static <E> NavigableSet<E> checkedNavigableSet(NavigableSet<E> s, Class<E> type) {
+        return new CheckedNavigableSet<>(s, type);
+    }
+
+    static class CheckedNavigableSet<E> extends CheckedSortedSet<E>
+            implements NavigableSet<E>, java.io.Serializable {
+        private static final long serialVersionUID = -5429120189805438922L;
+
+        private final NavigableSet<E> ns;
+
+        CheckedNavigableSet(NavigableSet<E> s, Class<E> type) {
+            super(s, type);
+            ns = s;
+        }
+
+        public E lower(E e) {
+            return ns.lower(e);
+        }
+
+        public E floor(E e) {
+            return ns.floor(e);
+        }
+
+        public E ceiling(E e) {
+            return ns.ceiling(e);
+        }
+
+        public E higher(E e) {
+            return ns.higher(e);
+        }
+
+        public E pollFirst() {
+            return ns.pollFirst();
+        }
+
+        public E pollLast() {
+            return ns.pollLast();
+        }
+
+        public NavigableSet<E> descendingSet() {
+            return checkedNavigableSet(ns.descendingSet(), type);
+        }
+
+        public Iterator<E> descendingIterator() {
+            return checkedNavigableSet(ns.descendingSet(), type).iterator();
+        }
+
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return checkedNavigableSet(ns.subSet(fromElement, fromInclusive, toElement, toInclusive), type);
+        }
+
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return checkedNavigableSet(ns.headSet(toElement, inclusive), type);
+        }
+
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return checkedNavigableSet(ns.tailSet(fromElement, inclusive), type);
+        }
+    }
+
+    public static <E> List<E> checkedList(List<E> list, Class<E> type) {
+        return (list instanceof RandomAccess ?
+                new CheckedRandomAccessList<>(list, type) :
+                new CheckedList<>(list, type));
+    }
+
+    static class CheckedList<E> extends CheckedCollection<E> implements List<E> {
+        private static final long serialVersionUID = 65247728283967356L;
+
+        final List<E> list;
+
+        CheckedList(List<E> list, Class<E> type) {
+            super(list, type);
+            this.list = list;
+        }
+
+        public boolean equals(Object o) {
+            return o == this || list.equals(o);
+        }
+
+        public int hashCode() {
+            return list.hashCode();
+        }
+
+        public E get(int index) {
+            return list.get(index);
+        }
+
+        public E remove(int index) {
+            return list.remove(index);
+        }
+
+        public int indexOf(Object o) {
+            return list.indexOf(o);
+        }
+
+        public int lastIndexOf(Object o) {
+            return list.lastIndexOf(o);
+        }
+
+        public E set(int index, E element) {
+            return list.set(index, typeCheck(element));
+        }
+
+        public void add(int index, E element) {
+            list.add(index, typeCheck(element));
+        }
+
+        public boolean addAll(int index, @NotNull Collection<? extends E> c) {
+            return list.addAll(index, checkedCopyOf(c));
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator() {
+            return listIterator(0);
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator(final int index) {
+            final ListIterator<E> i = list.listIterator(index);
+
+            return new ListIterator<E>() {
+                public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                public E next() {
+                    return i.next();
+                }
+
+                public boolean hasPrevious() {
+                    return i.hasPrevious();
+                }
+
+                public E previous() {
+                    return i.previous();
+                }
+
+                public int nextIndex() {
+                    return i.nextIndex();
+                }
+
+                public int previousIndex() {
+                    return i.previousIndex();
+                }
+
+                public void remove() {
+                    i.remove();
+                }
+
+                public void set(E e) {
+                    i.set(typeCheck(e));
+                }
+
+                public void add(E e) {
+                    i.add(typeCheck(e));
+                }
+            };
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new CheckedList<>(list.subList(fromIndex, toIndex), type);
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<E> operator) {
+            AssertIntrinsics.kexNotNull(operator);
+            list.replaceAll(e -> typeCheck(operator.apply(e)));
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+            list.sort(c);
+        }
+    }
+
+    static class CheckedRandomAccessList<E> extends CheckedList<E> implements RandomAccess {
+        private static final long serialVersionUID = 1638200125423088369L;
+
+        CheckedRandomAccessList(List<E> list, Class<E> type) {
+            super(list, type);
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            return new CheckedRandomAccessList<>(list.subList(fromIndex, toIndex), type);
+        }
+    }
+
+    public static <K, V> Map<K, V> checkedMap(Map<K, V> m, Class<K> keyType, Class<V> valueType) {
+        return new CheckedMap<>(m, keyType, valueType);
+    }
+
+    static class CheckedMap<K, V> implements Map<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = 5742860141034234728L;
+
+        private final Map<K, V> m;
+        final Class<K> keyType;
+        final Class<V> valueType;
+
+        CheckedMap(Map<K, V> m, Class<K> keyType, Class<V> valueType) {
+            if (m == null || keyType == null || valueType == null)
+                throw new NullPointerException();
+            this.m = m;
+            this.keyType = keyType;
+            this.valueType = valueType;
+        }
+
+        K keyCheck(Object key) {
+            return typeCheck(key, keyType, "key");
+        }
+
+        V valueCheck(Object value) {
+            return typeCheck(value, valueType, "value");
+        }
+
+        public int size() {
+            return m.size();
+        }
+
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        public boolean containsKey(Object key) {
+            return m.containsKey(key);
+        }
+
+        public boolean containsValue(Object v) {
+            return m.containsValue(v);
+        }
+
+        public V get(Object key) {
+            return m.get(key);
+        }
+
+        public V remove(Object key) {
+            return m.remove(key);
+        }
+
+        public void clear() {
+            m.clear();
+        }
+
+        @NotNull
+        public Set<K> keySet() {
+            return m.keySet();
+        }
+
+        @NotNull
+        public Collection<V> values() {
+            return m.values();
+        }
+
+        public boolean equals(Object o) {
+            return o == this || m.equals(o);
+        }
+
+        public int hashCode() {
+            return m.hashCode();
+        }
+
+        public String toString() {
+            return m.toString();
+        }
+
+        public V put(K key, V value) {
+            return m.put(keyCheck(key), valueCheck(value));
+        }
+
+        /**
+         * Checks every mapping before any of them is put.
+         */
+        @SuppressWarnings("unchecked")
+        public void putAll(@NotNull Map<? extends K, ? extends V> t) {
+            Object[] entries = t.entrySet().toArray();
+            CollectionIntrinsics.forEach(0, entries.length, i -> {
+                Map.Entry<?, ?> e = (Map.Entry<?, ?>) entries[i];
+                keyCheck(e.getKey());
+                valueCheck(e.getValue());
+            });
+            CollectionIntrinsics.forEach(0, entries.length, i -> {
+                Map.Entry<K, V> e = (Map.Entry<K, V>) entries[i];
+                m.put(e.getKey(), e.getValue());
+            });
+        }
+
+        @NotNull
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new CheckedEntrySet<>(m.entrySet(), valueType);
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue) {
+            return m.getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            m.forEach(action);
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+            AssertIntrinsics.kexNotNull(function);
+            m.replaceAll((k, v) -> valueCheck(function.apply(k, v)));
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return m.putIfAbsent(keyCheck(key), valueCheck(value));
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return m.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return m.replace(keyCheck(key), oldValue, valueCheck(newValue));
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            return m.replace(keyCheck(key), valueCheck(value));
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            AssertIntrinsics.kexNotNull(mappingFunction);
+            return m.computeIfAbsent(key, k -> valueCheck(mappingFunction.apply(k)));
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            AssertIntrinsics.kexNotNull(remappingFunction);
+            return m.computeIfPresent(key, (k, v) -> valueCheck(remappingFunction.apply(k, v)));
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            AssertIntrinsics.kexNotNull(remappingFunction);
+            return m.compute(key, (k, v) -> valueCheck(remappingFunction.apply(k, v)));
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            AssertIntrinsics.kexNotNull(remappingFunction);
+            return m.merge(key, value, (v1, v2) -> valueCheck(remappingFunction.apply(v1, v2)));
+        }
+    }
+
+    /**
+     * Entry set of a checked map, {@code setValue} of its entries checks the
+     * type of the value.
+     */
+    static class CheckedEntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final Set<Map.Entry<K, V>> s;
+        private final Class<V> valueType;
+
+        CheckedEntrySet(Set<Map.Entry<K, V>> s, Class<V> valueType) {
+            this.s = s;
+            this.valueType = valueType;
+        }
+
+        public int size() {
+            return s.size();
+        }
+
+        public boolean contains(Object o) {
+            return s.contains(o);
+        }
+
+        public boolean remove(Object o) {
+            return s.remove(o);
+        }
+
+        public void clear() {
+            s.clear();
+        }
+
+        public boolean add(Map.Entry<K, V> e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @NotNull
+        public Iterator<Map.Entry<K, V>> iterator() {
+            Iterator<Map.Entry<K, V>> i = s.iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                public void remove() {
+                    i.remove();
+                }
+
+                public Map.Entry<K, V> next() {
+                    return new CheckedEntry<>(i.next(), valueType);
+                }
+            };
+        }
+    }
+
+    static class CheckedEntry<K, V> implements Map.Entry<K, V> {
+        private final Map.Entry<K, V> e;
+        private final Class<V> valueType;
+
+        CheckedEntry(Map.Entry<K, V> e, Class<V> valueType) {
+            this.e = e;
+            this.valueType = valueType;
+        }
+
+        public K getKey() {
+            return e.getKey();
+        }
+
+        public V getValue() {
+            return e.getValue();
+        }
+
+        public V setValue(V value) {
+            return e.setValue(typeCheck(value, valueType, "value"));
+        }
+
+        public int hashCode() {
+            return e.hashCode();
+        }
+
+        public String toString() {
+            return e.toString();
+        }
+
+        public boolean equals(Object o) {
+            return o == this || e.equals(o);
+        }
+    }
+
+    public static <K, V> SortedMap<K, V> checkedSortedMap(SortedMap<K, V> m, Class<K> keyType, Class<V> valueType) {
+        return new CheckedSortedMap<>(m, keyType, valueType);
+    }
+
+    static class CheckedSortedMap<K, V> extends CheckedMap<K, V> implements SortedMap<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = 1599671320688067438L;
+
+        private final SortedMap<K, V> sm;
+
+        CheckedSortedMap(SortedMap<K, V> m, Class<K> keyType, Class<V> valueType) {
+            super(m, keyType, valueType);
+            sm = m;
+        }
+
+        public Comparator<? super K> comparator() {
+            return sm.comparator();
+        }
+
+        public K firstKey() {
+            return sm.firstKey();
+        }
+
+        public K lastKey() {
+            return sm.lastKey();
+        }
+
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return checkedSortedMap(sm.subMap(fromKey, toKey), keyType, valueType);
+        }
+
+        public SortedMap<K, V> headMap(K toKey) {
+            return checkedSortedMap(sm.headMap(toKey), keyType, valueType);
+        }
+
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return checkedSortedMap(sm.tailMap(fromKey), keyType, valueType);
+        }
+    }
+
+    public static <K, V> NavigableMap<K, V> checkedNavigableMap(NavigableMap<K, V> m, Class<K> keyType, Class<V> valueType) {
+        return new CheckedNavigableMap<>(m, keyType, valueType);
+    }
+
+    static class CheckedNavigableMap<K, V> extends CheckedSortedMap<K, V>
+            implements NavigableMap<K, V>, java.io.Serializable {
+        private static final long serialVersionUID = -4852462692372534096L;
+
+        private final NavigableMap<K, V> nm;
+
+        CheckedNavigableMap(NavigableMap<K, V> m, Class<K> keyType, Class<V> valueType) {
+            super(m, keyType, valueType);
+            nm = m;
+        }
+
+        private Map.Entry<K, V> checked(Map.Entry<K, V> e) {
+            return e == null ? null : new CheckedEntry<>(e, valueType);
+        }
+
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return checked(nm.lowerEntry(key));
+        }
+
+        public K lowerKey(K key) {
+            return nm.lowerKey(key);
+        }
+
+        public Map.Entry<K, V> floorEntry(K key) {
+            return checked(nm.floorEntry(key));
+        }
+
+        public K floorKey(K key) {
+            return nm.floorKey(key);
+        }
+
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return checked(nm.ceilingEntry(key));
+        }
+
+        public K ceilingKey(K key) {
+            return nm.ceilingKey(key);
+        }
+
+        public Map.Entry<K, V> higherEntry(K key) {
+            return checked(nm.higherEntry(key));
+        }
+
+        public K higherKey(K key) {
+            return nm.higherKey(key);
+        }
+
+        public Map.Entry<K, V> firstEntry() {
+            return checked(nm.firstEntry());
+        }
+
+        public Map.Entry<K, V> lastEntry() {
+            return checked(nm.lastEntry());
+        }
+
+        public Map.Entry<K, V> pollFirstEntry() {
+            return checked(nm.pollFirstEntry());
+        }
+
+        public Map.Entry<K, V> pollLastEntry() {
+            return checked(nm.pollLastEntry());
+        }
+
+        public NavigableMap<K, V> descendingMap() {
+            return checkedNavigableMap(nm.descendingMap(), keyType, valueType);
+        }
+
+        public NavigableSet<K> navigableKeySet() {
+            return checkedNavigableSet(nm.navigableKeySet(), keyType);
+        }
+
+        public NavigableSet<K> descendingKeySet() {
+            return checkedNavigableSet(nm.descendingKeySet(), keyType);
+        }
+
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            return checkedNavigableMap(nm.subMap(fromKey, fromInclusive, toKey, toInclusive), keyType, valueType);
+        }
+
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return checkedNavigableMap(nm.headMap(toKey, inclusive), keyType, valueType);
+        }
+
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return checkedNavigableMap(nm.tailMap(fromKey, inclusive), keyType, valueType);
+        }
+    }
+
+    // Empty collections
+
+    @SuppressWarnings("unchecked")
+    public static <T> Iterator<T> emptyIterator() {
+        return (Iterator<T>) EmptyIterator.EMPTY_ITERATOR;
+    }
+
+    private static class EmptyIterator<E> implements Iterator<E> {
+        static final EmptyIterator<Object> EMPTY_ITERATOR = new EmptyIterator<>();
+
+        public boolean hasNext() {
+            return false;
+        }
+
+        public E next() {
+            throw new NoSuchElementException();
+        }
+
+        public void remove() {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            AssertIntrinsics.kexNotNull(action);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ListIterator<T> emptyListIterator() {
+        return (ListIterator<T>) EmptyListIterator.EMPTY_ITERATOR;
+    }
+
+    private static class EmptyListIterator<E> extends EmptyIterator<E> implements ListIterator<E> {
+        static final EmptyListIterator<Object> EMPTY_ITERATOR = new EmptyListIterator<>();
+
+        public boolean hasPrevious() {
+            return false;
+        }
+
+        public E previous() {
+            throw new NoSuchElementException();
+        }
+
+        public int nextIndex() {
+            return 0;
+        }
+
+        public int previousIndex() {
+            return -1;
+        }
+
+        public void set(E e) {
+            throw new IllegalStateException();
+        }
+
+        public void add(E e) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Enumeration<T> emptyEnumeration() {
+        return (Enumeration<T>) EmptyEnumeration.EMPTY_ENUMERATION;
+    }
+
+    private static class EmptyEnumeration<E> implements Enumeration<E> {
+        static final EmptyEnumeration<Object> EMPTY_ENUMERATION = new EmptyEnumeration<>();
+
+        public boolean hasMoreElements() {
+            return false;
+        }
+
+        public E nextElement() {
+            throw new NoSuchElementException();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static final Set EMPTY_SET = new EmptySet<>();
+
+    @SuppressWarnings("unchecked")
+    public static final <T> Set<T> emptySet() {
+        return (Set<T>) EMPTY_SET;
+    }
+
+    private static class EmptySet<E> extends AbstractSet<E> implements java.io.Serializable {
+        private static final long serialVersionUID = 1582296315990362920L;
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return emptyIterator();
+        }
+
+        public int size() {
+            return 0;
+        }
+
+        public boolean isEmpty() {
+            return true;
+        }
+
+        public boolean contains(Object obj) {
+            return false;
+        }
+
+        public boolean containsAll(@NotNull Collection<?> c) {
+            return c.isEmpty();
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return new Object[0];
+        }
+
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            if (a.length > 0)
+                a[0] = null;
+            return a;
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            AssertIntrinsics.kexNotNull(action);
+        }
+    }
+
+    public static <E> SortedSet<E> emptySortedSet() {
+        return emptyNavigableSet();
+    }
+
+    public static <E> NavigableSet<E> emptyNavigableSet() {
+        return new UnmodifiableNavigableSet<>(new TreeSet<>());
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static final List EMPTY_LIST = new EmptyList<>();
+
+    @SuppressWarnings("unchecked")
+    public static final <T> List<T> emptyList() {
+        return (List<T>) EMPTY_LIST;
+    }
+
+    private static class EmptyList<E> extends AbstractList<E> implements RandomAccess, java.io.Serializable {
+        private static final long serialVersionUID = 8842843931221139166L;
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return emptyIterator();
+        }
+
+        @NotNull
+        public ListIterator<E> listIterator() {
+            return emptyListIterator();
+        }
+
+        public int size() {
+            return 0;
+        }
+
+        public boolean isEmpty() {
+            return true;
+        }
+
+        public boolean contains(Object obj) {
+            return false;
+        }
+
+        public boolean containsAll(@NotNull Collection<?> c) {
+            return c.isEmpty();
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return new Object[0];
+        }
+
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            if (a.length > 0)
+                a[0] = null;
+            return a;
+        }
+
+        public E get(int index) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        public boolean equals(Object o) {
+            return (o instanceof List) && ((List<?>) o).isEmpty();
+        }
+
+        public int hashCode() {
+            return 1;
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            AssertIntrinsics.kexNotNull(action);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static final Map EMPTY_MAP = new EmptyMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static final <K, V> Map<K, V> emptyMap() {
+        return (Map<K, V>) EMPTY_MAP;
+    }
+
+    public static final <K, V> SortedMap<K, V> emptySortedMap() {
+        return emptyNavigableMap();
+    }
+
+    public static final <K, V> NavigableMap<K, V> emptyNavigableMap() {
+        return new UnmodifiableNavigableMap<>(new TreeMap<>());
+    }
+
+    private static class EmptyMap<K, V> extends AbstractMap<K, V> implements java.io.Serializable {
+        private static final long serialVersionUID = 6428348081105594320L;
+
+        public int size() {
+            return 0;
+        }
+
+        public boolean isEmpty() {
+            return true;
+        }
+
+        public boolean containsKey(Object key) {
+            return false;
+        }
+
+        public boolean containsValue(Object value) {
+            return false;
+        }
+
+        public V get(Object key) {
+            return null;
+        }
+
+        @NotNull
+        public Set<K> keySet() {
+            return emptySet();
+        }
+
+        @NotNull
+        public Collection<V> values() {
+            return emptySet();
+        }
+
+        @NotNull
+        public Set<Map.Entry<K, V>> entrySet() {
+            return emptySet();
+        }
+
+        public boolean equals(Object o) {
+            return (o instanceof Map) && ((Map<?, ?>) o).isEmpty();
+        }
+
+        public int hashCode() {
+            return 0;
+        }
+
+        @Override
+        public V getOrDefault(Object k, V defaultValue) {
+            return defaultValue;
+        }
+    }
+
+    // Singleton collections
+
+    public static <T> Set<T> singleton(T o) {
+        return new SingletonSet<>(o);
+    }
+
+    static <E> Iterator<E> singletonIterator(final E e) {
+        return new Iterator<E>() {
+            private boolean hasNext = true;
+
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            public E next() {
+                if (hasNext) {
+                    hasNext = false;
+                    return e;
+                }
+                throw new NoSuchElementException();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static class SingletonSet<E> extends AbstractSet<E> implements java.io.Serializable {
+        private static final long serialVersionUID = 3193687207550431679L;
+
+        private final E element;
+
+        SingletonSet(E e) {
+            element = e;
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return singletonIterator(element);
+        }
+
+        public int size() {
+            return 1;
+        }
+
+        public boolean contains(Object o) {
+            return ObjectIntrinsics.equals(o, element);
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            action.accept(element);
+        }
+    }
+
+    public static <T> List<T> singletonList(T o) {
+        return new SingletonList<>(o);
+    }
+
+    private static class SingletonList<E> extends AbstractList<E> implements RandomAccess, java.io.Serializable {
+        private static final long serialVersionUID = 3093736618740652951L;
+
+        private final E element;
+
+        SingletonList(E obj) {
+            element = obj;
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return singletonIterator(element);
+        }
+
+        public int size() {
+            return 1;
+        }
+
+        public boolean contains(Object obj) {
+            return ObjectIntrinsics.equals(obj, element);
+        }
+
+        public E get(int index) {
+            if (index != 0)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+            return element;
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            action.accept(element);
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+        }
+    }
+
+    public static <K, V> Map<K, V> singletonMap(K key, V value) {
+        return new SingletonMap<>(key, value);
+    }
+
+    private static class SingletonMap<K, V> extends AbstractMap<K, V> implements java.io.Serializable {
+        private static final long serialVersionUID = -6979724477215052911L;
+
+        private final K k;
+        private final V v;
+
+        SingletonMap(K key, V value) {
+            k = key;
+            v = value;
+        }
+
+        public int size() {
+            return 1;
+        }
+
+        public boolean isEmpty() {
+            return false;
+        }
+
+        public boolean containsKey(Object key) {
+            return ObjectIntrinsics.equals(key, k);
+        }
+
+        public boolean containsValue(Object value) {
+            return ObjectIntrinsics.equals(value, v);
+        }
+
+        public V get(Object key) {
+            return ObjectIntrinsics.equals(key, k) ? v : null;
+        }
+
+        @NotNull
+        public Set<K> keySet() {
+            return singleton(k);
+        }
+
+        @NotNull
+        public Set<Map.Entry<K, V>> entrySet() {
+            return singleton(new AbstractMap.SimpleImmutableEntry<>(k, v));
+        }
+
+        @NotNull
+        public Collection<V> values() {
+            return singleton(v);
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue) {
+            return ObjectIntrinsics.equals(key, k) ? v : defaultValue;
+        }
+    }
+
+    // Miscellaneous
+
+    public static <T> List<T> nCopies(int n, T o) {
+        if (n < 0)
+            throw new IllegalArgumentException("List length = " + n);
+        return new CopiesList<>(n, o);
+    }
+
+    private static class CopiesList<E> extends AbstractList<E> implements RandomAccess, java.io.Serializable {
+        private static final long serialVersionUID = 2739099268398711800L;
+
+        final int n;
+        final E element;
+
+        CopiesList(int n, E e) {
+            this.n = n;
+            element = e;
+        }
+
+        public int size() {
+            return n;
+        }
+
+        public boolean contains(Object obj) {
+            return n != 0 && ObjectIntrinsics.equals(obj, element);
+        }
+
+        public int indexOf(Object o) {
+            return contains(o) ? 0 : -1;
+        }
+
+        public int lastIndexOf(Object o) {
+            return contains(o) ? n - 1 : -1;
+        }
+
+        public E get(int index) {
+            if (index < 0 || index >= n)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + n);
+            return element;
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return CollectionIntrinsics.generateObjectArray(n, i -> element);
+        }
+
+        @NotNull
+        public List<E> subList(int fromIndex, int toIndex) {
+            if (fromIndex < 0)
+                throw new IndexOutOfBoundsException("fromIndex = " + fromIndex);
+            if (toIndex > n)
+                throw new IndexOutOfBoundsException("toIndex = " + toIndex);
+            if (fromIndex > toIndex)
+                throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+            return new CopiesList<>(toIndex - fromIndex, element);
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            AssertIntrinsics.kexNotNull(action);
+            CollectionIntrinsics.forEach(0, n, i -> action.accept(element));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> reverseOrder() {
+        return (Comparator<T>) ReverseComparator.REVERSE_ORDER;
+    }
+
+    private static class ReverseComparator implements Comparator<Comparable<Object>>, java.io.Serializable {
+        private static final long serialVersionUID = 7207038068494060240L;
+
+        static final ReverseComparator REVERSE_ORDER = new ReverseComparator();
+
+        public int compare(Comparable<Object> c1, Comparable<Object> c2) {
+            return c2.compareTo(c1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> reverseOrder(Comparator<T> cmp) {
+        if (cmp == null)
+            return reverseOrder();
+        else if (cmp == ReverseComparator.REVERSE_ORDER)
+            return (Comparator<T>) Arrays.NaturalOrder.INSTANCE;
+        else if (cmp instanceof ReverseComparator2)
+            return ((ReverseComparator2<T>) cmp).cmp;
+        else
+            return new ReverseComparator2<>(cmp);
+    }
+
+    private static class ReverseComparator2<T> implements Comparator<T>, java.io.Serializable {
+        private static final long serialVersionUID = 4374092139857L;
+
+        final Comparator<T> cmp;
+
+        ReverseComparator2(Comparator<T> cmp) {
+            this.cmp = cmp;
+        }
+
+        public int compare(T t1, T t2) {
+            return cmp.compare(t2, t1);
+        }
+
+        public boolean equals(Object o) {
+            return (o == this) ||
+                    (o instanceof ReverseComparator2 &&
+                            cmp.equals(((ReverseComparator2<?>) o).cmp));
+        }
+
+        public int hashCode() {
+            return cmp.hashCode() ^ Integer.MIN_VALUE;
+        }
+
+        @Override
+        public Comparator<T> reversed() {
+            return cmp;
+        }
+    }
+
+    public static <T> Enumeration<T> enumeration(final Collection<T> c) {
+        return new Enumeration<T>() {
+            private final Iterator<T> i = c.iterator();
+
+            public boolean hasMoreElements() {
+                return i.hasNext();
+            }
+
+            public T nextElement() {
+                return i.next();
+            }
+        };
+    }
+
+    public static <T> ArrayList<T> list(Enumeration<T> e) {
+        ArrayList<T> l = new ArrayList<>();
+        while (e.hasMoreElements())
+            l.add(e.nextElement());
+        return l;
+    }
+
+    /**
+     * The occurrences are counted in a single pass over the elements.
+     */
+    public static int frequency(Collection<?> c, Object o) {
+        Object[] elements = c.toArray();
+        int[] result = new int[1];
+        CollectionIntrinsics.forEach(0, elements.length, i -> {
+            if (ObjectIntrinsics.equals(o, elements[i]))
+                result[0]++;
+        });
+        return result[0];
+    }
+
+    public static boolean disjoint(Collection<?> c1, Collection<?> c2) {
+        Object[] elements = c1.toArray();
+        return CollectionIntrinsics.forAll(0, elements.length, i -> !c2.contains(elements[i]));
+    }
+
+    @SafeVarargs
+    public static <T> boolean addAll(Collection<? super T> c, T... elements) {
+        boolean[] result = new boolean[1];
+        CollectionIntrinsics.forEach(0, elements.length, i -> {
+            if (c.add(elements[i]))
+                result[0] = true;
+        });
+        return result[0];
+    }
+
+    public static <E> Set<E> newSetFromMap(Map<E, Boolean> map) {
+        return new SetFromMap<>(map);
+    }
+
+    private static class SetFromMap<E> extends AbstractSet<E> implements Set<E>, java.io.Serializable {
+        private static final long serialVersionUID = 2454657854757543876L;
+
+        private final Map<E, Boolean> m;  // The backing map
+
+        SetFromMap(Map<E, Boolean> map) {
+            if (!map.isEmpty())
+                throw new IllegalArgumentException("Map is non-empty");
+            m = map;
+        }
+
+        public void clear() {
+            m.clear();
+        }
+
+        public int size() {
+            return m.size();
+        }
+
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return m.containsKey(o);
+        }
+
+        public boolean remove(Object o) {
+            return m.remove(o) != null;
+        }
+
+        public boolean add(E e) {
+            return m.put(e, Boolean.TRUE) == null;
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return m.keySet().iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            m.keySet().forEach(action);
+        }
+    }
+
+    public static <T> Queue<T> asLifoQueue(Deque<T> deque) {
+        return new AsLIFOQueue<>(deque);
+    }
+
+    static class AsLIFOQueue<E> extends AbstractQueue<E> implements Queue<E>, java.io.Serializable {
+        private static final long serialVersionUID = 1802017725587941708L;
+
+        private final Deque<E> q;
+
+        AsLIFOQueue(Deque<E> q) {
+            this.q = q;
+        }
+
+        public boolean add(E e) {
+            q.addFirst(e);
+            return true;
+        }
+
+        public boolean offer(E e) {
+            return q.offerFirst(e);
+        }
+
+        public E poll() {
+            return q.pollFirst();
+        }
+
+        public E remove() {
+            return q.removeFirst();
+        }
+
+        public E peek() {
+            return q.peekFirst();
+        }
+
+        public E element() {
+            return q.getFirst();
+        }
+
+        public void clear() {
+            q.clear();
+        }
+
+        public int size() {
+            return q.size();
+        }
+
+        public boolean isEmpty() {
+            return q.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return q.contains(o);
+        }
+
+        public boolean remove(Object o) {
+            return q.remove(o);
+        }
+
+        @NotNull
+        public Iterator<E> iterator() {
+            return q.iterator();
+        }
+
+        @NotNull
+        public Object[] toArray() {
+            return q.toArray();
+        }
+
+        @NotNull
+        public <T> T[] toArray(@NotNull T[] a) {
+            return q.toArray(a);
+        }
+
+        public String toString() {
+            return q.toString();
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            q.forEach(action);
+        }
+    }
+
+    // Printing of the kex collections
+
+    /**
+     * Same text as {@code AbstractCollection.toString()} for
+     * {@code elements[from, to)}. The elements are gathered into one
+     * generated array, with references to the collection itself replaced,
+     * and printed by the {@code any2String} intrinsic in one step.
+     */
+    static String collectionToString(Object self, Object[] elements, int from, int to) {
+        Object[] printed = CollectionIntrinsics.generateObjectArray(to - from, index -> {
+            Object e = elements[from + index];
+            return e == self ? "(this Collection)" : e;
+        });
+        return ObjectIntrinsics.any2String(printed);
+    }
+
+    /**
+     * Same text as {@code AbstractMap.toString()} for the first {@code size}
+     * entries of the parallel {@code keys} and {@code values} arrays.
+     */
+    static String mapToString(Object self, Object[] keys, Object[] values, int size) {
+        Object[] printed = CollectionIntrinsics.generateObjectArray(size, index -> {
+            Object key = keys[index];
+            Object value = values[index];
+            return ObjectIntrinsics.any2String(key == self ? "(this Map)" : key)
+                    .concat("=")
+                    .concat(ObjectIntrinsics.any2String(value == self ? "(this Map)" : value));
+        });
+        String list = ObjectIntrinsics.any2String(printed);
+        return "{".concat(list.substring(1, list.length() - 1)).concat("}");
+    }
+}
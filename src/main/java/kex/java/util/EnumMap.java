@@ -0,0 +1,490 @@
+package kex.java.util;
+/*
+ * Copyright (c) 2003, 2012, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * A specialized {@link Map} implementation for use with enum type keys. All
+ * of the keys in an enum map must come from a single enum type that is
+ * specified, explicitly or implicitly, when the map is created. Enum maps
+ * are maintained in the <i>natural order</i> of their keys (the order in
+ * which the enum constants are declared).
+ *
+ * <p>The model keeps each mapping in the slot with the ordinal of its key,
+ * so every lookup is a direct array access. The number of slots is an
+ * unknown value that is greater than the ordinal of any key, the enum
+ * constants are never obtained through reflection.
+ *
+ * @param <K> the enum type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Josh Bloch
+ * @see EnumSet
+ * @since 1.5
+ */
+public class EnumMap<K extends Enum<K>, V> extends AbstractMap<K, V>
+        implements java.io.Serializable, Cloneable {
+
+    private static final long serialVersionUID = 458661240069192865L;
+
+    /**
+     * The <tt>Class</tt> object for the enum type of all the keys of this map.
+     */
+    private final Class<K> keyType;
+
+    /**
+     * Key of each mapping at the ordinal of the key, {@code null} for the
+     * keys that are not mapped.
+     */
+    private transient Object[] keys;
+
+    /**
+     * Value of each mapping at the ordinal of its key.
+     */
+    private transient Object[] vals;
+
+    /**
+     * The number of mappings in this map.
+     */
+    private transient int size = 0;
+
+    public EnumMap(Class<K> keyType) {
+        this.keyType = keyType;
+        int universeSize = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(universeSize >= 0);
+        keys = new Object[universeSize];
+        vals = new Object[universeSize];
+    }
+
+    public EnumMap(EnumMap<K, ? extends V> m) {
+        m.contracts();
+        keyType = m.keyType;
+        keys = m.keys.clone();
+        vals = m.vals.clone();
+        size = m.size;
+    }
+
+    public EnumMap(Map<K, ? extends V> m) {
+        if (m instanceof EnumMap) {
+            EnumMap<K, ? extends V> em = (EnumMap<K, ? extends V>) m;
+            em.contracts();
+            keyType = em.keyType;
+            keys = em.keys.clone();
+            vals = em.vals.clone();
+            size = em.size;
+        } else {
+            if (m.isEmpty())
+                throw new IllegalArgumentException("Specified map is empty");
+            keyType = m.keySet().iterator().next().getDeclaringClass();
+            int universeSize = UnknownIntrinsics.kexUnknownInt();
+            AssertIntrinsics.kexAssume(universeSize >= 0);
+            keys = new Object[universeSize];
+            vals = new Object[universeSize];
+            putAll(m);
+        }
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(keys);
+        AssertIntrinsics.kexNotNull(vals);
+        AssertIntrinsics.kexAssume(keys.length == vals.length);
+        AssertIntrinsics.kexAssume(size >= 0);
+        AssertIntrinsics.kexAssume(size <= keys.length);
+    }
+
+    /**
+     * Constants of the enum in the order of their ordinals. The array is
+     * unknown and constrained once by the factories that need every
+     * constant, instead of being obtained through reflection.
+     */
+    static <E extends Enum<E>> E[] universe(Class<E> type) {
+        E[] universe = UnknownIntrinsics.kexUnknown();
+        AssertIntrinsics.kexNotNull(universe);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, universe.length, i ->
+                universe[i] != null && universe[i].getDeclaringClass() == type && universe[i].ordinal() == i));
+        return universe;
+    }
+
+    /**
+     * Slot of the key. Ordinals of the constants of an enum are distinct, so
+     * the slot is unique for the key, and only this slot is constrained to
+     * hold nothing but the key.
+     */
+    private int slotOf(Enum<?> key) {
+        int index = key.ordinal();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index < keys.length);
+        AssertIntrinsics.kexAssume(keys[index] == null || keys[index] == key);
+        AssertIntrinsics.kexAssume(keys[index] != null || vals[index] == null);
+        return index;
+    }
+
+    /**
+     * Index of the first occupied slot at or after {@code from}, or
+     * {@code slots.length} if there is none. Empty slots are skipped by a
+     * single constraint instead of a branch per slot, the found one holds the
+     * constant with its ordinal.
+     */
+    static int nextPresent(Object[] slots, int from) {
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= from);
+        AssertIntrinsics.kexAssume(index <= slots.length);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(from, index, i -> slots[i] == null));
+        AssertIntrinsics.kexAssume(index == slots.length
+                || (slots[index] != null && ((Enum<?>) slots[index]).ordinal() == index));
+        return index;
+    }
+
+    /**
+     * Returns true if key is of the proper type to be a key in this
+     * enum map.
+     */
+    private boolean isValidKey(Object key) {
+        if (key == null)
+            return false;
+
+        // Cheaper than instanceof Enum followed by getDeclaringClass
+        Class<?> keyClass = key.getClass();
+        return keyClass == keyType || keyClass.getSuperclass() == keyType;
+    }
+
+    /**
+     * Throws an exception if e is not of the correct type for this enum set.
+     */
+    private void typeCheck(K key) {
+        Class<?> keyClass = key.getClass();
+        if (keyClass != keyType && keyClass.getSuperclass() != keyType)
+            throw new ClassCastException(keyClass + " != " + keyType);
+    }
+
+    public int size() {
+        contracts();
+        return size;
+    }
+
+    public boolean containsValue(Object value) {
+        contracts();
+        return !CollectionIntrinsics.forAll(0, keys.length, i ->
+                keys[i] == null || !ObjectIntrinsics.equals(value, vals[i]));
+    }
+
+    public boolean containsKey(Object key) {
+        contracts();
+        return isValidKey(key) && keys[slotOf((Enum<?>) key)] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        contracts();
+        return isValidKey(key) ? (V) vals[slotOf((Enum<?>) key)] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        contracts();
+        typeCheck(key);
+
+        int index = slotOf(key);
+        V oldValue = (V) vals[index];
+        if (keys[index] == null)
+            size++;
+        keys[index] = key;
+        vals[index] = value;
+        return oldValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        contracts();
+        if (!isValidKey(key))
+            return null;
+        return removeAt(slotOf((Enum<?>) key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        V oldValue = (V) vals[index];
+        if (keys[index] != null) {
+            keys[index] = null;
+            vals[index] = null;
+            size--;
+        }
+        return oldValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<? extends K, ? extends V> m) {
+        contracts();
+        if (m instanceof EnumMap) {
+            EnumMap<?, ?> em = (EnumMap<?, ?>) m;
+            em.contracts();
+            if (em.keyType != keyType) {
+                if (em.isEmpty())
+                    return;
+                throw new ClassCastException(em.keyType + " != " + keyType);
+            }
+            CollectionIntrinsics.forEach(0, em.keys.length, i -> {
+                Object key = em.keys[i];
+                if (key != null)
+                    put((K) key, (V) em.vals[i]);
+            });
+        } else {
+            super.putAll(m);
+        }
+    }
+
+    public void clear() {
+        contracts();
+        keys = new Object[keys.length];
+        vals = new Object[vals.length];
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null)
+            throw new NullPointerException();
+        contracts();
+        CollectionIntrinsics.forEach(0, keys.length, i -> {
+            if (keys[i] != null)
+                action.accept((K) keys[i], (V) vals[i]);
+        });
+    }
+
+    // Views
+
+    public Set<K> keySet() {
+        return new KeySet();
+    }
+
+    private class KeySet extends AbstractSet<K> {
+        @NotNull
+        public Iterator<K> iterator() {
+            return new KeyIterator();
+        }
+
+        public int size() {
+            return EnumMap.this.size();
+        }
+
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        public boolean remove(Object o) {
+            int oldSize = EnumMap.this.size();
+            EnumMap.this.remove(o);
+            return EnumMap.this.size() != oldSize;
+        }
+
+        public void clear() {
+            EnumMap.this.clear();
+        }
+    }
+
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    private class Values extends AbstractCollection<V> {
+        @NotNull
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        public int size() {
+            return EnumMap.this.size();
+        }
+
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        public void clear() {
+            EnumMap.this.clear();
+        }
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @NotNull
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object key = entry.getKey();
+            return containsKey(key) && ObjectIntrinsics.equals(get(key), entry.getValue());
+        }
+
+        public boolean remove(Object o) {
+            if (!contains(o))
+                return false;
+            EnumMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        public int size() {
+            return EnumMap.this.size();
+        }
+
+        public void clear() {
+            EnumMap.this.clear();
+        }
+    }
+
+    private abstract class EnumMapIterator<T> implements Iterator<T> {
+        // Index of the next occupied slot
+        int index;
+
+        // Index of last returned element, or -1 if none
+        int lastReturnedIndex = -1;
+
+        EnumMapIterator() {
+            contracts();
+            index = nextPresent(keys, 0);
+        }
+
+        public boolean hasNext() {
+            contracts();
+            return index < keys.length;
+        }
+
+        int nextIndex() {
+            contracts();
+            if (index >= keys.length)
+                throw new NoSuchElementException();
+            lastReturnedIndex = index;
+            index = nextPresent(keys, index + 1);
+            return lastReturnedIndex;
+        }
+
+        public void remove() {
+            contracts();
+            if (lastReturnedIndex < 0)
+                throw new IllegalStateException();
+            removeAt(lastReturnedIndex);
+            lastReturnedIndex = -1;
+        }
+    }
+
+    private class KeyIterator extends EnumMapIterator<K> {
+        @SuppressWarnings("unchecked")
+        public K next() {
+            return (K) keys[nextIndex()];
+        }
+    }
+
+    private class ValueIterator extends EnumMapIterator<V> {
+        @SuppressWarnings("unchecked")
+        public V next() {
+            return (V) vals[nextIndex()];
+        }
+    }
+
+    private class EntryIterator extends EnumMapIterator<Map.Entry<K, V>> {
+        public Map.Entry<K, V> next() {
+            return new Entry(nextIndex());
+        }
+    }
+
+    /**
+     * Entry of the slot, reads and writes through to the map.
+     */
+    private class Entry implements Map.Entry<K, V> {
+        private final int index;
+
+        private Entry(int index) {
+            this.index = index;
+        }
+
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) keys[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) vals[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            V oldValue = (V) vals[index];
+            vals[index] = value;
+            return oldValue;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return keys[index] == e.getKey() && ObjectIntrinsics.equals(vals[index], e.getValue());
+        }
+
+        public int hashCode() {
+            Object value = vals[index];
+            return keys[index].hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        public String toString() {
+            return keys[index] + "=" + vals[index];
+        }
+    }
+
+    /**
+     * Returns a shallow copy of this enum map.  (The values themselves
+     * are not cloned.
+     *
+     * @return a shallow copy of this enum map
+     */
+    @SuppressWarnings("unchecked")
+    public EnumMap<K, V> clone() {
+        contracts();
+        EnumMap<K, V> result;
+        try {
+            result = (EnumMap<K, V>) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError();
+        }
+        result.keys = result.keys.clone();
+        result.vals = result.vals.clone();
+        return result;
+    }
+}
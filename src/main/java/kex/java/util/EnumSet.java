@@ -0,0 +1,453 @@
+package kex.java.util;
+/*
+ * Copyright (c) 2003, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A specialized {@link Set} implementation for use with enum types.  All of
+ * the elements in an enum set must come from a single enum type that is
+ * specified, explicitly or implicitly, when the set is created.  The iterator
+ * returned by the {@code iterator} method traverses the elements in their
+ * <i>natural order</i> (the order in which the enum constants are declared).
+ *
+ * <p>Instead of the JDK bit vectors, the model keeps each element in the
+ * slot with its ordinal, like the keys of {@link EnumMap}. The number of
+ * slots is unknown, and the factories that need every constant of the enum
+ * ({@code allOf}, {@code complementOf} and {@code range}) take them from an
+ * unknown array, so the enum is never reflected on.
+ *
+ * @param <E> the enum type of elements maintained by this set
+ * @author Josh Bloch
+ * @see EnumMap
+ * @since 1.5
+ */
+public class EnumSet<E extends Enum<E>> extends AbstractSet<E>
+        implements Cloneable, java.io.Serializable {
+    private static final long serialVersionUID = 1009687484059888093L;
+
+    /**
+     * The class of all the elements of this set.
+     */
+    final Class<E> elementType;
+
+    /**
+     * Element at its ordinal, {@code null} for the absent ones.
+     */
+    Object[] elements;
+
+    /**
+     * The number of elements in this set.
+     */
+    int size;
+
+    EnumSet(Class<E> elementType, Object[] elements, int size) {
+        this.elementType = elementType;
+        this.elements = elements;
+        this.size = size;
+    }
+
+    void contracts() {
+        AssertIntrinsics.kexNotNull(elements);
+        AssertIntrinsics.kexAssume(size >= 0);
+        AssertIntrinsics.kexAssume(size <= elements.length);
+    }
+
+    /**
+     * Creates an empty enum set with the specified element type.
+     *
+     * @param <E>         The class of the elements in the set
+     * @param elementType the class object of the element type for this enum
+     *                    set
+     * @return An empty enum set of the specified type.
+     * @throws NullPointerException if <tt>elementType</tt> is null
+     */
+    public static <E extends Enum<E>> EnumSet<E> noneOf(Class<E> elementType) {
+        AssertIntrinsics.kexNotNull(elementType);
+        int universeSize = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(universeSize >= 0);
+        return new EnumSet<>(elementType, new Object[universeSize], 0);
+    }
+
+    /**
+     * Creates an enum set containing all of the elements in the specified
+     * element type.
+     *
+     * @param <E>         The class of the elements in the set
+     * @param elementType the class object of the element type for this enum
+     *                    set
+     * @return An enum set containing all the elements in the specified type.
+     * @throws NullPointerException if <tt>elementType</tt> is null
+     */
+    public static <E extends Enum<E>> EnumSet<E> allOf(Class<E> elementType) {
+        E[] universe = EnumMap.universe(elementType);
+        return new EnumSet<>(elementType, universe, universe.length);
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> copyOf(EnumSet<E> s) {
+        return s.clone();
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> copyOf(Collection<E> c) {
+        if (c instanceof EnumSet) {
+            return ((EnumSet<E>) c).clone();
+        } else {
+            if (c.isEmpty())
+                throw new IllegalArgumentException("Collection is empty");
+            Iterator<E> i = c.iterator();
+            E first = i.next();
+            EnumSet<E> result = EnumSet.of(first);
+            while (i.hasNext())
+                result.add(i.next());
+            return result;
+        }
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> complementOf(EnumSet<E> s) {
+        s.contracts();
+        E[] universe = EnumMap.universe(s.elementType);
+        // slots of the other set past the last constant are never occupied
+        AssertIntrinsics.kexAssume(
+                CollectionIntrinsics.forAll(universe.length, s.elements.length, i -> s.elements[i] == null)
+        );
+        Object[] elements = CollectionIntrinsics.generateObjectArray(universe.length, i -> {
+            if (i < s.elements.length && s.elements[i] != null) return null;
+            else return universe[i];
+        });
+        return new EnumSet<>(s.elementType, elements, universe.length - s.size);
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> of(E e) {
+        EnumSet<E> result = noneOf(e.getDeclaringClass());
+        result.add(e);
+        return result;
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> of(E e1, E e2) {
+        EnumSet<E> result = noneOf(e1.getDeclaringClass());
+        result.add(e1);
+        result.add(e2);
+        return result;
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> of(E e1, E e2, E e3) {
+        EnumSet<E> result = noneOf(e1.getDeclaringClass());
+        result.add(e1);
+        result.add(e2);
+        result.add(e3);
+        return result;
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> of(E e1, E e2, E e3, E e4) {
+        EnumSet<E> result = noneOf(e1.getDeclaringClass());
+        result.add(e1);
+        result.add(e2);
+        result.add(e3);
+        result.add(e4);
+        return result;
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> of(E e1, E e2, E e3, E e4,
+                                                    E e5) {
+        EnumSet<E> result = noneOf(e1.getDeclaringClass());
+        result.add(e1);
+        result.add(e2);
+        result.add(e3);
+        result.add(e4);
+        result.add(e5);
+        return result;
+    }
+
+    @SafeVarargs
+    public static <E extends Enum<E>> EnumSet<E> of(E first, E... rest) {
+        EnumSet<E> result = noneOf(first.getDeclaringClass());
+        result.add(first);
+        CollectionIntrinsics.forEach(0, rest.length, i -> result.add(rest[i]));
+        return result;
+    }
+
+    public static <E extends Enum<E>> EnumSet<E> range(E from, E to) {
+        if (from.compareTo(to) > 0)
+            throw new IllegalArgumentException(from + " > " + to);
+        Class<E> elementType = from.getDeclaringClass();
+        E[] universe = EnumMap.universe(elementType);
+        int fromOrdinal = from.ordinal();
+        int toOrdinal = to.ordinal();
+        AssertIntrinsics.kexAssume(toOrdinal < universe.length);
+        Object[] elements = CollectionIntrinsics.generateObjectArray(universe.length, i -> {
+            if (i >= fromOrdinal && i <= toOrdinal) return universe[i];
+            else return null;
+        });
+        return new EnumSet<>(elementType, elements, toOrdinal - fromOrdinal + 1);
+    }
+
+    /**
+     * Slot of the element, unique for each constant of the enum. Only this
+     * slot is constrained to hold nothing but the element.
+     */
+    private int slotOf(Enum<?> e) {
+        int index = e.ordinal();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index < elements.length);
+        AssertIntrinsics.kexAssume(elements[index] == null || elements[index] == e);
+        return index;
+    }
+
+    private boolean isValid(Object e) {
+        if (e == null)
+            return false;
+        Class<?> eClass = e.getClass();
+        return eClass == elementType || eClass.getSuperclass() == elementType;
+    }
+
+    /**
+     * Throws an exception if e is not of the correct type for this enum set.
+     */
+    final void typeCheck(E e) {
+        Class<?> eClass = e.getClass();
+        if (eClass != elementType && eClass.getSuperclass() != elementType)
+            throw new ClassCastException(eClass + " != " + elementType);
+    }
+
+    @NotNull
+    public Iterator<E> iterator() {
+        return new EnumSetIterator();
+    }
+
+    private class EnumSetIterator implements Iterator<E> {
+        // Index of the next occupied slot
+        int index;
+
+        // Index of last returned element, or -1 if none
+        int lastReturnedIndex = -1;
+
+        EnumSetIterator() {
+            contracts();
+            index = EnumMap.nextPresent(elements, 0);
+        }
+
+        public boolean hasNext() {
+            contracts();
+            return index < elements.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            contracts();
+            if (index >= elements.length)
+                throw new NoSuchElementException();
+            lastReturnedIndex = index;
+            index = EnumMap.nextPresent(elements, index + 1);
+            return (E) elements[lastReturnedIndex];
+        }
+
+        public void remove() {
+            contracts();
+            if (lastReturnedIndex < 0)
+                throw new IllegalStateException();
+            if (elements[lastReturnedIndex] != null) {
+                elements[lastReturnedIndex] = null;
+                size--;
+            }
+            lastReturnedIndex = -1;
+        }
+    }
+
+    public int size() {
+        contracts();
+        return size;
+    }
+
+    public boolean isEmpty() {
+        contracts();
+        return size == 0;
+    }
+
+    public boolean contains(Object e) {
+        contracts();
+        return isValid(e) && elements[slotOf((Enum<?>) e)] != null;
+    }
+
+    public boolean add(E e) {
+        contracts();
+        typeCheck(e);
+
+        int index = slotOf(e);
+        if (elements[index] != null)
+            return false;
+        elements[index] = e;
+        size++;
+        return true;
+    }
+
+    public boolean remove(Object e) {
+        contracts();
+        if (!isValid(e))
+            return false;
+        int index = slotOf((Enum<?>) e);
+        if (elements[index] == null)
+            return false;
+        elements[index] = null;
+        size--;
+        return true;
+    }
+
+    // Bulk Operations
+
+    public boolean containsAll(Collection<?> c) {
+        if (!(c instanceof EnumSet))
+            return super.containsAll(c);
+
+        EnumSet<?> es = (EnumSet<?>) c;
+        contracts();
+        es.contracts();
+        if (es.elementType != elementType)
+            return es.isEmpty();
+
+        return CollectionIntrinsics.forAll(0, es.elements.length, i ->
+                es.elements[i] == null || contains(es.elements[i]));
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends E> c) {
+        if (!(c instanceof EnumSet))
+            return super.addAll(c);
+
+        EnumSet<?> es = (EnumSet<?>) c;
+        contracts();
+        es.contracts();
+        if (es.elementType != elementType) {
+            if (es.isEmpty())
+                return false;
+            else
+                throw new ClassCastException(
+                        es.elementType + " != " + elementType);
+        }
+
+        int oldSize = size;
+        CollectionIntrinsics.forEach(0, es.elements.length, i -> {
+            Object e = es.elements[i];
+            if (e != null)
+                add((E) e);
+        });
+        return size != oldSize;
+    }
+
+    public boolean removeAll(Collection<?> c) {
+        if (!(c instanceof EnumSet))
+            return super.removeAll(c);
+
+        EnumSet<?> es = (EnumSet<?>) c;
+        contracts();
+        es.contracts();
+        if (es.elementType != elementType)
+            return false;
+
+        int oldSize = size;
+        CollectionIntrinsics.forEach(0, es.elements.length, i -> {
+            Object e = es.elements[i];
+            if (e != null)
+                remove(e);
+        });
+        return size != oldSize;
+    }
+
+    public boolean retainAll(Collection<?> c) {
+        if (!(c instanceof EnumSet))
+            return super.retainAll(c);
+
+        EnumSet<?> es = (EnumSet<?>) c;
+        contracts();
+        es.contracts();
+        if (es.elementType != elementType) {
+            boolean changed = (size != 0);
+            clear();
+            return changed;
+        }
+
+        int oldSize = size;
+        CollectionIntrinsics.forEach(0, elements.length, i -> {
+            Object e = elements[i];
+            if (e != null && !es.contains(e)) {
+                elements[i] = null;
+                size--;
+            }
+        });
+        return size != oldSize;
+    }
+
+    public void clear() {
+        contracts();
+        elements = new Object[elements.length];
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        AssertIntrinsics.kexNotNull(action);
+        contracts();
+        CollectionIntrinsics.forEach(0, elements.length, i -> {
+            if (elements[i] != null)
+                action.accept((E) elements[i]);
+        });
+    }
+
+    public boolean equals(Object o) {
+        if (!(o instanceof EnumSet))
+            return super.equals(o);
+
+        EnumSet<?> es = (EnumSet<?>) o;
+        contracts();
+        es.contracts();
+        if (es.elementType != elementType)
+            return size == 0 && es.size == 0;
+
+        return size == es.size && containsAll(es);
+    }
+
+    /**
+     * Returns a copy of this set.
+     *
+     * @return a copy of this set
+     */
+    @SuppressWarnings("unchecked")
+    public EnumSet<E> clone() {
+        contracts();
+        try {
+            EnumSet<E> result = (EnumSet<E>) super.clone();
+            result.elements = result.elements.clone();
+            return result;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -26,7 +26,8 @@ package kex.java.util;
 
 import org.jetbrains.annotations.NotNull;
 import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
-import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
 
 import java.io.IOException;
 import java.io.InvalidObjectException;
@@ -179,6 +180,15 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     ArrayList<K> keys;
     ArrayList<V> values;
 
+    /**
+     * Views of the map, created on the first request and reused afterwards.
+     * A generated map may hold anything in these fields, so a reused view is
+     * assumed to be a view of this very map.
+     */
+    transient Set<K> keySetView;
+    transient Collection<V> valuesView;
+    transient Set<Map.Entry<K, V>> entrySetView;
+
     public HashMap(int initialCapacity, float loadFactor) {
         this.keys = new ArrayList<>();
         this.values = new ArrayList<>();
@@ -206,8 +216,27 @@ public class HashMap<K, V> extends AbstractMap<K, V>
      * @param evict false when initially constructing this map, else
      *              true (relayed to method afterNodeInsertion).
      */
+    @SuppressWarnings("unchecked")
     final void putMapEntries(Map<? extends K, ? extends V> m, boolean evict) {
-        // TODO()
+        contracts();
+        if (m instanceof HashMap) {
+            HashMap<? extends K, ? extends V> other = (HashMap<? extends K, ? extends V>) m;
+            other.contracts();
+            if (isEmpty() && !(evict && this instanceof LinkedHashMap)) {
+                // keys of the other map are already distinct, its storage is copied as a whole.
+                // Insertions into a LinkedHashMap may evict entries, so they are replayed one by one
+                keys = (ArrayList<K>) other.keys.clone();
+                values = (ArrayList<V>) other.values.clone();
+            } else {
+                CollectionIntrinsics.forEach(0, other.size(), index ->
+                        putVal(other.keys.get(index), other.values.get(index), evict));
+            }
+        } else {
+            for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+                K key = e.getKey();
+                putVal(key, e.getValue(), evict);
+            }
+        }
     }
 
     protected void contracts() {
@@ -216,6 +245,35 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         AssertIntrinsics.kexAssume(keys.size() == values.size());
     }
 
+    /**
+     * Hash code of a key or a value, zero for {@code null}.
+     */
+    static int hash(Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    /**
+     * Locates the entry of the key.
+     *
+     * @return index of the entry in {@code keys} and {@code values}, or -1
+     * if the map contains no mapping for the key
+     */
+    final int indexOfKey(Object key) {
+        return keys.indexOf(key);
+    }
+
+    void addEntry(K key, V value) {
+        keys.add(key);
+        values.add(value);
+    }
+
+    V removeEntryAt(int index) {
+        V oldValue = values.get(index);
+        keys.remove(index);
+        values.remove(index);
+        return oldValue;
+    }
+
     public int size() {
         contracts();
         return keys.size();
@@ -228,40 +286,53 @@ public class HashMap<K, V> extends AbstractMap<K, V>
 
     public V get(Object key) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index == -1) return null;
         else return values.get(index);
     }
 
     public boolean containsKey(Object key) {
         contracts();
-        return keys.contains(key);
+        return indexOfKey(key) >= 0;
     }
 
     public V put(K key, V value) {
         contracts();
-        int index = keys.indexOf(key);
+        return putVal(key, value, true);
+    }
+
+    /**
+     * Implements Map.put and related methods
+     *
+     * @param evict if false, the map is in creation mode.
+     * @return previous value, or null if none
+     */
+    final V putVal(K key, V value, boolean evict) {
+        int index = indexOfKey(key);
         if (index >= 0) {
-            return values.set(index, value);
+            V oldValue = values.set(index, value);
+            afterNodeAccess(index);
+            return oldValue;
         } else {
-            keys.add(key);
-            values.add(value);
-            return value;
+            addEntry(key, value);
+            afterNodeInsertion(evict);
+            return null;
         }
     }
 
+    // Callbacks to allow LinkedHashMap post-actions
+    void afterNodeAccess(int index) { }
+    void afterNodeInsertion(boolean evict) { }
+
     public void putAll(Map<? extends K, ? extends V> m) {
         putMapEntries(m, true);
     }
 
     public V remove(Object key) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index >= 0) {
-            V retval = values.get(index);
-            keys.remove(index);
-            values.remove(index);
-            return retval;
+            return removeEntryAt(index);
         } else {
             return null;
         }
@@ -279,10 +350,18 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     }
 
     public Set<K> keySet() {
-        return new KeySet();
+        Set<K> view = keySetView;
+        if (view == null)
+            return keySetView = new KeySet();
+        AssertIntrinsics.kexAssume(view instanceof HashMap<?, ?>.KeySet && ((HashMap<?, ?>.KeySet) view).map() == this);
+        return view;
     }
 
     final class KeySet extends AbstractSet<K> {
+        final HashMap<K, V> map() {
+            return HashMap.this;
+        }
+
         public final int size() {
             return HashMap.this.size();
         }
@@ -305,20 +384,79 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         }
 
         public final Spliterator<K> spliterator() {
-            HashMap.this.contracts();
-            return UnknownIntrinsics.kexUnknown();
+            return keySpliterator(Spliterator.DISTINCT);
         }
 
         public final void forEach(Consumer<? super K> action) {
-            HashMap.this.contracts();
+            forEachKey(action);
         }
     }
 
+    /**
+     * Spliterators of the views, traversing the entries in the order of the
+     * backing arrays.
+     */
+    final Spliterator<K> keySpliterator(int characteristics) {
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(keys.elementData, 0, keys.size(), characteristics);
+    }
+
+    final Spliterator<V> valueSpliterator(int characteristics) {
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(values.elementData, 0, values.size(), characteristics);
+    }
+
+    final Spliterator<Map.Entry<K, V>> entrySpliterator(int characteristics) {
+        contracts();
+        int size = keys.size();
+        Object[] entries = CollectionIntrinsics.generateObjectArray(size, index ->
+                new Node<>(keys.elementData[index], values.elementData[index]));
+        return new ArraySpliterators.ArraySpliterator<>(entries, 0, size, characteristics);
+    }
+
+    /*
+     * Bulk traversals of the views, a single step over the backing arrays
+     * instead of an iterator per element.
+     */
+
+    @SuppressWarnings("unchecked")
+    final void forEachKey(Consumer<? super K> action) {
+        if (action == null)
+            throw new NullPointerException();
+        contracts();
+        CollectionIntrinsics.forEach(0, keys.size(), index -> action.accept((K) keys.elementData[index]));
+    }
+
+    @SuppressWarnings("unchecked")
+    final void forEachValue(Consumer<? super V> action) {
+        if (action == null)
+            throw new NullPointerException();
+        contracts();
+        CollectionIntrinsics.forEach(0, values.size(), index -> action.accept((V) values.elementData[index]));
+    }
+
+    @SuppressWarnings("unchecked")
+    final void forEachEntry(Consumer<? super Map.Entry<K, V>> action) {
+        if (action == null)
+            throw new NullPointerException();
+        contracts();
+        CollectionIntrinsics.forEach(0, keys.size(), index ->
+                action.accept(new Node<>((K) keys.elementData[index], (V) values.elementData[index])));
+    }
+
     public Collection<V> values() {
-        return new Values();
+        Collection<V> view = valuesView;
+        if (view == null)
+            return valuesView = new Values();
+        AssertIntrinsics.kexAssume(view instanceof HashMap<?, ?>.Values && ((HashMap<?, ?>.Values) view).map() == this);
+        return view;
     }
 
     final class Values extends AbstractCollection<V> {
+        final HashMap<K, V> map() {
+            return HashMap.this;
+        }
+
         public final int size() {
             return HashMap.this.size();
         }
@@ -337,19 +475,27 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         }
 
         public final Spliterator<V> spliterator() {
-            HashMap.this.contracts();
-            return UnknownIntrinsics.kexUnknown();
+            return valueSpliterator(0);
         }
 
         public final void forEach(Consumer<? super V> action) {
+            forEachValue(action);
         }
     }
 
     public Set<Map.Entry<K, V>> entrySet() {
-        return new EntrySet();
+        Set<Map.Entry<K, V>> view = entrySetView;
+        if (view == null)
+            return entrySetView = new EntrySet();
+        AssertIntrinsics.kexAssume(view instanceof HashMap<?, ?>.EntrySet && ((HashMap<?, ?>.EntrySet) view).map() == this);
+        return view;
     }
 
     final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        final HashMap<K, V> map() {
+            return HashMap.this;
+        }
+
         public final int size() {
             return HashMap.this.size();
         }
@@ -382,10 +528,12 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         }
 
         public final Spliterator<Map.Entry<K, V>> spliterator() {
-            return UnknownIntrinsics.kexUnknown();
+            return entrySpliterator(Spliterator.DISTINCT);
         }
 
-        public final void forEach(Consumer<? super Map.Entry<K, V>> action) {}
+        public final void forEach(Consumer<? super Map.Entry<K, V>> action) {
+            forEachEntry(action);
+        }
     }
 
     // Overrides of JDK8 Map extension methods
@@ -393,7 +541,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     @Override
     public V getOrDefault(Object key, V defaultValue) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index >= 0) {
             return values.get(index);
         } else {
@@ -404,23 +552,26 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     @Override
     public V putIfAbsent(K key, V value) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index >= 0) {
-            return values.get(index);
+            V oldValue = values.get(index);
+            afterNodeAccess(index);
+            return oldValue;
         } else {
-            return put(key, value);
+            addEntry(key, value);
+            afterNodeInsertion(true);
+            return null;
         }
     }
 
     @Override
     public boolean remove(Object key, Object value) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index >= 0) {
             V storedValue = values.get(index);
             if (storedValue.equals(value)) {
-                keys.remove(index);
-                values.remove(index);
+                removeEntryAt(index);
                 return true;
             } else {
                 return false;
@@ -433,11 +584,12 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     @Override
     public boolean replace(K key, V oldValue, V newValue) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index >= 0) {
             V storedValue = values.get(index);
             if (storedValue.equals(oldValue)) {
                 values.set(index, newValue);
+                afterNodeAccess(index);
                 return true;
             } else {
                 return false;
@@ -450,50 +602,179 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     @Override
     public V replace(K key, V value) {
         contracts();
-        int index = keys.indexOf(key);
+        int index = indexOfKey(key);
         if (index >= 0) {
-            V old = values.get(index);
-            values.set(index, value);
-            return old;
+            V oldValue = values.set(index, value);
+            afterNodeAccess(index);
+            return oldValue;
         } else {
-            return put(key, value);
+            return null;
         }
     }
 
     @Override
     public V computeIfAbsent(K key,
                              Function<? super K, ? extends V> mappingFunction) {
-        return UnknownIntrinsics.kexUnknown();
+        if (mappingFunction == null)
+            throw new NullPointerException();
+        contracts();
+        int index = indexOfKey(key);
+        if (index >= 0) {
+            V oldValue = values.get(index);
+            if (oldValue != null) {
+                afterNodeAccess(index);
+                return oldValue;
+            }
+        }
+        V value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        } else if (index >= 0) {
+            values.set(index, value);
+            afterNodeAccess(index);
+            return value;
+        }
+        addEntry(key, value);
+        afterNodeInsertion(true);
+        return value;
     }
 
     public V computeIfPresent(K key,
                               BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
-        return UnknownIntrinsics.kexUnknown();
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        contracts();
+        int index = indexOfKey(key);
+        if (index < 0)
+            return null;
+        V oldValue = values.get(index);
+        if (oldValue == null)
+            return null;
+        V value = remappingFunction.apply(key, oldValue);
+        if (value == null) {
+            removeEntryAt(index);
+        } else {
+            values.set(index, value);
+            afterNodeAccess(index);
+        }
+        return value;
     }
 
     @Override
     public V compute(K key,
                      BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
-        return UnknownIntrinsics.kexUnknown();
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        contracts();
+        int index = indexOfKey(key);
+        V oldValue = index >= 0 ? values.get(index) : null;
+        V value = remappingFunction.apply(key, oldValue);
+        if (index >= 0) {
+            if (value != null) {
+                values.set(index, value);
+                afterNodeAccess(index);
+            } else {
+                removeEntryAt(index);
+            }
+        } else if (value != null) {
+            addEntry(key, value);
+            afterNodeInsertion(true);
+        }
+        return value;
     }
 
     @Override
     public V merge(K key, V value,
                    BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
-        return UnknownIntrinsics.kexUnknown();
+        if (value == null)
+            throw new NullPointerException();
+        if (remappingFunction == null)
+            throw new NullPointerException();
+        contracts();
+        int index = indexOfKey(key);
+        if (index < 0) {
+            addEntry(key, value);
+            afterNodeInsertion(true);
+            return value;
+        }
+        V oldValue = values.get(index);
+        V newValue = oldValue == null ? value : remappingFunction.apply(oldValue, value);
+        if (newValue != null) {
+            values.set(index, newValue);
+            afterNodeAccess(index);
+        } else {
+            removeEntryAt(index);
+        }
+        return newValue;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null)
+            throw new NullPointerException();
+        contracts();
+        CollectionIntrinsics.forEach(0, keys.size(), index ->
+                action.accept((K) keys.elementData[index], (V) values.elementData[index]));
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        if (function == null)
+            throw new NullPointerException();
+        contracts();
+        CollectionIntrinsics.forEach(0, keys.size(), index ->
+                values.elementData[index] = function.apply((K) keys.elementData[index], (V) values.elementData[index]));
+    }
+
+    /**
+     * Every entry of this map must be present in the other one, which is a
+     * single quantified constraint over the lookups of the other map.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof Map))
+            return false;
+        contracts();
+        Map<?, ?> m = (Map<?, ?>) o;
+        int size = keys.size();
+        if (m.size() != size)
+            return false;
+        Object[] keyData = keys.elementData;
+        Object[] valueData = values.elementData;
+        return CollectionIntrinsics.forAll(0, size, i -> {
+            Object value = valueData[i];
+            if (value == null)
+                return m.get(keyData[i]) == null && m.containsKey(keyData[i]);
+            return value.equals(m.get(keyData[i]));
+        });
+    }
+
+    /**
+     * The sum of the entry hashes, accumulated in a single pass over the
+     * backing arrays.
+     */
+    @Override
+    public int hashCode() {
+        contracts();
+        int[] hashCode = new int[1];
+        CollectionIntrinsics.forEach(0, keys.size(), index ->
+                hashCode[0] += hash(keys.elementData[index]) ^ hash(values.elementData[index]));
+        return hashCode[0];
     }
 
     /* ------------------------------------------------------------ */
     // Cloning and serialization
 
+    @Override
+    public String toString() {
+        contracts();
+        return Collections.mapToString(this, keys.elementData, values.elementData, keys.size());
+    }
+
     /**
      * Returns a shallow copy of this <tt>HashMap</tt> instance: the keys and
      * values themselves are not cloned.
@@ -512,21 +793,34 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     /* ------------------------------------------------------------ */
     // iterators
 
+    /**
+     * Iterators rely on the map invariants checked once at creation: the map
+     * may only be modified through {@link #remove()} during the traversal,
+     * which keeps them.
+     */
     abstract class HashIterator<T> implements Iterator<T> {
         int cursor = 0;
         int lastRet = -1;
 
-        public boolean hasNext() {
+        HashIterator() {
             HashMap.this.contracts();
-            return cursor < HashMap.this.keys.size();
+        }
+
+        public boolean hasNext() {
+            return cursor < keys.size();
+        }
+
+        final int nextIndex() {
+            if (cursor >= keys.size())
+                throw new NoSuchElementException();
+            return lastRet = cursor++;
         }
 
         public void remove() {
-            HashMap.this.contracts();
             if (lastRet < 0)
                 throw new IllegalStateException();
 
-            HashMap.this.remove(keys.get(lastRet));
+            HashMap.this.removeEntryAt(lastRet);
             cursor = lastRet;
             lastRet = -1;
         }
@@ -534,23 +828,67 @@ public class HashMap<K, V> extends AbstractMap<K, V>
 
     final class KeyIterator extends HashIterator<K> {
         public final K next() {
-            HashMap.this.contracts();
-            return keys.get(cursor++);
+            return keys.get(nextIndex());
         }
     }
 
     final class ValueIterator extends HashIterator<V> {
         public final V next() {
-            HashMap.this.contracts();
-            return values.get(cursor++);
+            return values.get(nextIndex());
         }
     }
 
+    /**
+     * Entry returned by an entry iterator, its {@code setValue} writes
+     * through to the slot of the entry in the map.
+     */
+    final class EntryView implements Map.Entry<K, V> {
+        final int index;
+        final K key;
+        V value;
+
+        EntryView(int index) {
+            this.index = index;
+            this.key = keys.get(index);
+            this.value = values.get(index);
+        }
+
+        public final K getKey() {
+            return key;
+        }
+
+        public final V getValue() {
+            return value;
+        }
+
+        public final V setValue(V newValue) {
+            V oldValue = value;
+            values.set(index, newValue);
+            value = newValue;
+            return oldValue;
+        }
+
+        public final boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return ObjectIntrinsics.equals(key, e.getKey()) && ObjectIntrinsics.equals(value, e.getValue());
+        }
+
+        public final int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        public final String toString() {
+            return key + "=" + value;
+        }
+    }
 
     final class EntryIterator extends HashIterator<Map.Entry<K, V>> {
         public final Map.Entry<K, V> next() {
-            HashMap.this.contracts();
-            return new Node<>(keys.get(cursor), values.get(cursor++));
+            return new EntryView(nextIndex());
         }
     }
 }
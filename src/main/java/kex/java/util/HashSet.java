@@ -27,8 +27,10 @@ package kex.java.util;
 
 
 import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 
 /**
@@ -92,90 +94,166 @@ import java.util.*;
 public class HashSet<E>
         extends AbstractSet<E>
         implements Set<E>, Cloneable, java.io.Serializable {
-    LinkedHashMap<E, Object> inner;
+    /**
+     * Elements of the set in insertion order, without duplicates.
+     */
+    ArrayList<E> elements;
 
     public HashSet() {
-        inner = new LinkedHashMap<>();
+        elements = new ArrayList<>();
     }
 
+    @SuppressWarnings("unchecked")
     public HashSet(Collection<? extends E> c) {
-        inner = new LinkedHashMap<>();
-        addAll(c);
+        if (c instanceof HashSet) {
+            // elements of the other set are already distinct
+            HashSet<? extends E> other = (HashSet<? extends E>) c;
+            other.contracts();
+            elements = (ArrayList<E>) other.elements.clone();
+        } else {
+            elements = new ArrayList<>();
+            addAll(c);
+        }
     }
 
     public HashSet(int initialCapacity, float loadFactor) {
-        inner = new LinkedHashMap<>(initialCapacity, loadFactor);
+        elements = new ArrayList<>(initialCapacity);
     }
 
     public HashSet(int initialCapacity) {
-        inner = new LinkedHashMap<>(initialCapacity);
+        elements = new ArrayList<>(initialCapacity);
     }
 
     HashSet(int initialCapacity, float loadFactor, boolean dummy) {
-        inner = new LinkedHashMap<>(initialCapacity, loadFactor);
+        elements = new ArrayList<>(initialCapacity);
     }
 
     protected void contracts() {
-        AssertIntrinsics.kexNotNull(inner);
+        AssertIntrinsics.kexNotNull(elements);
     }
 
     @Override
     public Iterator<E> iterator() {
         contracts();
-        return inner.keySet().iterator();
+        return elements.iterator();
     }
 
     @Override
     public int size() {
         contracts();
-        return inner.size();
+        return elements.size();
     }
 
     @Override
     public boolean isEmpty() {
         contracts();
-        return inner.isEmpty();
+        return elements.isEmpty();
     }
 
     @Override
     public boolean contains(Object o) {
         contracts();
-        return inner.containsKey(o);
+        return elements.contains(o);
     }
 
     @Override
     public boolean add(E e) {
         contracts();
-        if (!inner.containsKey(e)) {
-            inner.put(e, new Object());
-            return true;
+        if (elements.contains(e)) {
+            return false;
         }
-        return false;
+        elements.add(e);
+        return true;
     }
 
     @Override
     public boolean remove(Object o) {
         contracts();
-        return inner.remove(o) != null;
+        int index = elements.indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        elements.remove(index);
+        return true;
     }
 
     @Override
     public void clear() {
         contracts();
-        inner.clear();
+        elements.clear();
+    }
+
+    /**
+     * Both sets hold distinct elements, so sets of the same size are equal
+     * when every element of this one is contained in the other. This is
+     * checked by a single quantified constraint over the backing arrays.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof Set))
+            return false;
+        contracts();
+        final Object[] other;
+        if (o instanceof HashSet) {
+            HashSet<?> set = (HashSet<?>) o;
+            set.contracts();
+            other = Arrays.copyOf(set.elements.elementData, set.elements.size());
+        } else {
+            other = ((Set<?>) o).toArray();
+        }
+        int size = elements.size();
+        if (size != other.length)
+            return false;
+        Object[] elementData = elements.elementData;
+        return CollectionIntrinsics.forAll(0, size, index -> CollectionIntrinsics.contains(other, elementData[index]));
+    }
+
+    /**
+     * The sum of the element hashes, accumulated in a single pass over the
+     * backing array.
+     */
+    @Override
+    public int hashCode() {
+        contracts();
+        Object[] elementData = elements.elementData;
+        int[] hashCode = new int[1];
+        CollectionIntrinsics.forEach(0, elements.size(), index -> {
+            Object e = elementData[index];
+            hashCode[0] += e == null ? 0 : e.hashCode();
+        });
+        return hashCode[0];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public Object clone() {
         contracts();
-        HashSet<E> v = new HashSet<>();
-        v.inner = (LinkedHashMap<E, Object>) inner.clone();
-        return v;
+        try {
+            HashSet<E> v = (HashSet<E>) super.clone();
+            v.elements = (ArrayList<E>) elements.clone();
+            return v;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        contracts();
+        return Collections.collectionToString(this, elements.elementData, 0, elements.size());
     }
 
     @Override
     public Spliterator<E> spliterator() {
         contracts();
-        return inner.keySet().spliterator();
+        return new ArraySpliterators.ArraySpliterator<>(elements.elementData, 0, elements.size(), Spliterator.DISTINCT);
+    }
+
+    @Override
+    public Stream<E> stream() {
+        contracts();
+        return new ArrayStream<>(elements.elementData, 0, elements.size());
     }
 }
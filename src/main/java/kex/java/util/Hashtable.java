@@ -0,0 +1,301 @@
+package kex.java.util;
+/*
+ * Copyright (c) 1994, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * This class implements a hash table, which maps keys to values. Any
+ * non-<code>null</code> object can be used as a key or as a value.
+ *
+ * <p>The model stores the entries in a kex {@link HashMap}, so lookups cost
+ * the same as in the modern map, and only adds the {@code null} checks of
+ * the legacy class. The analyzed code is single-threaded, so none of the
+ * methods is {@code synchronized}. Capacity and load factor do not affect
+ * the model, {@link #rehash()} does nothing.
+ *
+ * @author Arthur van Hoff
+ * @author Josh Bloch
+ * @author Neal Gafter
+ * @see Object#equals(java.lang.Object)
+ * @see Object#hashCode()
+ * @see Hashtable#rehash()
+ * @see Collection
+ * @see Map
+ * @see HashMap
+ * @see TreeMap
+ * @since JDK1.0
+ */
+public class Hashtable<K, V>
+        extends Dictionary<K, V>
+        implements Map<K, V>, Cloneable, java.io.Serializable {
+
+    private static final long serialVersionUID = 1421746759512286392L;
+
+    /**
+     * The entries of the table.
+     */
+    private transient HashMap<K, V> map;
+
+    public Hashtable(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        if (loadFactor <= 0 || Float.isNaN(loadFactor))
+            throw new IllegalArgumentException("Illegal Load: " + loadFactor);
+        map = new HashMap<>();
+    }
+
+    public Hashtable(int initialCapacity) {
+        this(initialCapacity, 0.75f);
+    }
+
+    public Hashtable() {
+        map = new HashMap<>();
+    }
+
+    public Hashtable(Map<? extends K, ? extends V> t) {
+        map = new HashMap<>();
+        putAll(t);
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(map);
+    }
+
+    public int size() {
+        contracts();
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        contracts();
+        return map.isEmpty();
+    }
+
+    public Enumeration<K> keys() {
+        contracts();
+        return Collections.enumeration(map.keySet());
+    }
+
+    public Enumeration<V> elements() {
+        contracts();
+        return Collections.enumeration(map.values());
+    }
+
+    public boolean contains(Object value) {
+        contracts();
+        if (value == null)
+            throw new NullPointerException();
+        return map.containsValue(value);
+    }
+
+    public boolean containsValue(Object value) {
+        return contains(value);
+    }
+
+    public boolean containsKey(Object key) {
+        contracts();
+        if (key == null)
+            throw new NullPointerException();
+        return map.containsKey(key);
+    }
+
+    public V get(Object key) {
+        contracts();
+        if (key == null)
+            throw new NullPointerException();
+        return map.get(key);
+    }
+
+    protected void rehash() {
+        // nothing
+    }
+
+    public V put(K key, V value) {
+        contracts();
+        if (value == null || key == null)
+            throw new NullPointerException();
+        return map.put(key, value);
+    }
+
+    public V remove(Object key) {
+        contracts();
+        if (key == null)
+            throw new NullPointerException();
+        return map.remove(key);
+    }
+
+    public void putAll(@NotNull Map<? extends K, ? extends V> t) {
+        for (Map.Entry<? extends K, ? extends V> e : t.entrySet())
+            put(e.getKey(), e.getValue());
+    }
+
+    public void clear() {
+        contracts();
+        map.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Object clone() {
+        contracts();
+        Hashtable<K, V> t = new Hashtable<>();
+        t.map = (HashMap<K, V>) map.clone();
+        return t;
+    }
+
+    public String toString() {
+        contracts();
+        return map.toString();
+    }
+
+    @NotNull
+    public Set<K> keySet() {
+        contracts();
+        return map.keySet();
+    }
+
+    @NotNull
+    public Set<Map.Entry<K, V>> entrySet() {
+        contracts();
+        return map.entrySet();
+    }
+
+    @NotNull
+    public Collection<V> values() {
+        contracts();
+        return map.values();
+    }
+
+    public boolean equals(Object o) {
+        contracts();
+        return o == this || map.equals(o);
+    }
+
+    public int hashCode() {
+        contracts();
+        return map.hashCode();
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        contracts();
+        if (key == null)
+            throw new NullPointerException();
+        return map.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        contracts();
+        AssertIntrinsics.kexNotNull(action);
+        map.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        contracts();
+        AssertIntrinsics.kexNotNull(function);
+        map.replaceAll((key, value) -> {
+            V newValue = function.apply(key, value);
+            if (newValue == null)
+                throw new NullPointerException();
+            return newValue;
+        });
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        contracts();
+        if (value == null || key == null)
+            throw new NullPointerException();
+        return map.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        contracts();
+        if (value == null || key == null)
+            throw new NullPointerException();
+        return map.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        contracts();
+        if (oldValue == null || newValue == null || key == null)
+            throw new NullPointerException();
+        return map.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        contracts();
+        if (value == null || key == null)
+            throw new NullPointerException();
+        return map.replace(key, value);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        contracts();
+        AssertIntrinsics.kexNotNull(mappingFunction);
+        if (key == null)
+            throw new NullPointerException();
+        return map.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        contracts();
+        AssertIntrinsics.kexNotNull(remappingFunction);
+        if (key == null)
+            throw new NullPointerException();
+        return map.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        contracts();
+        AssertIntrinsics.kexNotNull(remappingFunction);
+        if (key == null)
+            throw new NullPointerException();
+        return map.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        contracts();
+        AssertIntrinsics.kexNotNull(remappingFunction);
+        if (value == null || key == null)
+            throw new NullPointerException();
+        return map.merge(key, value, remappingFunction);
+    }
+}
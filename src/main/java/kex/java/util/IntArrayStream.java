@@ -0,0 +1,392 @@
+package kex.java.util;
+
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.*;
+import java.util.stream.*;
+
+import static kex.java.util.ArrayStream.SKIPPED;
+
+/**
+ * Sequential {@code int} stream over the {@code [origin, fence)} range of an
+ * array, evaluated the same way as {@link ArrayStream}. The stage passes
+ * the element of a source index on to a sink instead of returning it, so
+ * the elements are never boxed and a dropped element is simply not passed.
+ */
+final class IntArrayStream implements IntStream {
+    /**
+     * Intermediate operations composed over a source index.
+     */
+    interface IntStage {
+        /**
+         * Passes the element at the source index to the sink, or nothing if
+         * the element is dropped by a filter.
+         */
+        void apply(int index, IntConsumer sink);
+    }
+
+    /**
+     * Source array if no intermediate operation is applied, null otherwise.
+     */
+    private final int[] array;
+    private final int origin;
+    private final int fence;
+    /**
+     * Elements of the stream at a source index.
+     */
+    private final IntStage stage;
+    /**
+     * Whether the stage may skip elements.
+     */
+    private final boolean filtered;
+
+    IntArrayStream(int[] array, int origin, int fence) {
+        AssertIntrinsics.kexNotNull(array);
+        this.array = array;
+        this.origin = origin;
+        this.fence = fence;
+        this.stage = (index, sink) -> sink.accept(array[index]);
+        this.filtered = false;
+    }
+
+    IntArrayStream(int origin, int fence, IntStage stage, boolean filtered) {
+        this.array = null;
+        this.origin = origin;
+        this.fence = fence;
+        this.stage = stage;
+        this.filtered = filtered;
+    }
+
+    private IntStream fallback() {
+        if (array != null)
+            return StreamSupport.intStream(spliterator(), false);
+        return IntStream.range(origin, fence).flatMap(index -> {
+            IntStream.Builder elements = IntStream.builder();
+            stage.apply(index, elements);
+            return elements.build();
+        });
+    }
+
+    /**
+     * Passes every element of the stream to the action in one pass.
+     */
+    private void evaluate(IntConsumer action) {
+        CollectionIntrinsics.forEach(origin, fence, index -> stage.apply(index, action));
+    }
+
+    /**
+     * Same search as {@code ArrayStream.firstMatch}: the stage and the
+     * predicate run in a forEach step up to the unknown index of the first
+     * matching element.
+     *
+     * @param match receives the element at the returned index
+     * @return source index of the first matching element, or {@code fence}
+     * if no element matches
+     */
+    private int firstMatch(IntPredicate predicate, int[] match) {
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= origin);
+        AssertIntrinsics.kexAssume(index <= fence);
+        int end = index < fence ? index + 1 : fence;
+        boolean[] matched = new boolean[end - origin];
+        CollectionIntrinsics.forEach(origin, end, i -> stage.apply(i, v -> {
+            matched[i - origin] = predicate.test(v);
+            match[0] = v;
+        }));
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, index - origin, i -> !matched[i]));
+        AssertIntrinsics.kexAssume(index == fence || matched[index - origin]);
+        return index;
+    }
+
+    @Override
+    public IntStream filter(IntPredicate predicate) {
+        AssertIntrinsics.kexNotNull(predicate);
+        return new IntArrayStream(origin, fence, (index, sink) -> stage.apply(index, v -> {
+            if (predicate.test(v))
+                sink.accept(v);
+        }), true);
+    }
+
+    @Override
+    public IntStream map(IntUnaryOperator mapper) {
+        AssertIntrinsics.kexNotNull(mapper);
+        return new IntArrayStream(origin, fence, (index, sink) ->
+                stage.apply(index, v -> sink.accept(mapper.applyAsInt(v))), filtered);
+    }
+
+    @Override
+    public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
+        AssertIntrinsics.kexNotNull(mapper);
+        return new ArrayStream<>(origin, fence, index -> {
+            Object[] element = {SKIPPED};
+            stage.apply(index, v -> element[0] = mapper.apply(v));
+            return element[0];
+        }, filtered);
+    }
+
+    @Override
+    public LongStream mapToLong(IntToLongFunction mapper) {
+        return fallback().mapToLong(mapper);
+    }
+
+    @Override
+    public DoubleStream mapToDouble(IntToDoubleFunction mapper) {
+        return fallback().mapToDouble(mapper);
+    }
+
+    @Override
+    public IntStream flatMap(IntFunction<? extends IntStream> mapper) {
+        return fallback().flatMap(mapper);
+    }
+
+    @Override
+    public IntStream distinct() {
+        return fallback().distinct();
+    }
+
+    @Override
+    public IntStream sorted() {
+        return fallback().sorted();
+    }
+
+    @Override
+    public IntStream peek(IntConsumer action) {
+        AssertIntrinsics.kexNotNull(action);
+        return new IntArrayStream(origin, fence, (index, sink) -> stage.apply(index, v -> {
+            action.accept(v);
+            sink.accept(v);
+        }), filtered);
+    }
+
+    /**
+     * Without filters every source index yields exactly one element, so the
+     * limit cuts the source range and the stage never runs past it.
+     */
+    @Override
+    public IntStream limit(long maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        if (filtered)
+            return fallback().limit(maxSize);
+        if (maxSize >= fence - origin)
+            return this;
+        int newFence = origin + (int) maxSize;
+        return array != null ? new IntArrayStream(array, origin, newFence)
+                : new IntArrayStream(origin, newFence, stage, false);
+    }
+
+    /**
+     * Skipped elements still pass through the intermediate operations in the
+     * JDK, so only a plain array range is cut.
+     */
+    @Override
+    public IntStream skip(long n) {
+        if (n < 0)
+            throw new IllegalArgumentException(Long.toString(n));
+        if (array == null)
+            return fallback().skip(n);
+        if (n >= fence - origin)
+            return new IntArrayStream(array, fence, fence);
+        return new IntArrayStream(array, origin + (int) n, fence);
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        AssertIntrinsics.kexNotNull(action);
+        evaluate(action);
+    }
+
+    @Override
+    public void forEachOrdered(IntConsumer action) {
+        forEach(action);
+    }
+
+    @Override
+    public int[] toArray() {
+        if (array != null)
+            return Arrays.copyOfRange(array, origin, fence);
+        int[] result = new int[fence - origin];
+        int[] written = new int[1];
+        evaluate(v -> result[written[0]++] = v);
+        return Arrays.copyOf(result, written[0]);
+    }
+
+    @Override
+    public int reduce(int identity, IntBinaryOperator op) {
+        AssertIntrinsics.kexNotNull(op);
+        int[] accumulated = {identity};
+        evaluate(v -> accumulated[0] = op.applyAsInt(accumulated[0], v));
+        return accumulated[0];
+    }
+
+    @Override
+    public OptionalInt reduce(IntBinaryOperator op) {
+        AssertIntrinsics.kexNotNull(op);
+        boolean[] found = new boolean[1];
+        int[] accumulated = new int[1];
+        evaluate(v -> {
+            if (found[0]) {
+                accumulated[0] = op.applyAsInt(accumulated[0], v);
+            } else {
+                found[0] = true;
+                accumulated[0] = v;
+            }
+        });
+        return found[0] ? OptionalInt.of(accumulated[0]) : OptionalInt.empty();
+    }
+
+    @Override
+    public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        AssertIntrinsics.kexNotNull(accumulator);
+        R container = supplier.get();
+        evaluate(v -> accumulator.accept(container, v));
+        return container;
+    }
+
+    @Override
+    public int sum() {
+        return reduce(0, Integer::sum);
+    }
+
+    @Override
+    public OptionalInt min() {
+        return reduce(Math::min);
+    }
+
+    @Override
+    public OptionalInt max() {
+        return reduce(Math::max);
+    }
+
+    @Override
+    public long count() {
+        if (array != null)
+            return fence - origin;
+        long[] count = new long[1];
+        evaluate(v -> count[0]++);
+        return count[0];
+    }
+
+    @Override
+    public OptionalDouble average() {
+        long[] sumAndCount = new long[2];
+        evaluate(v -> {
+            sumAndCount[0] += v;
+            sumAndCount[1]++;
+        });
+        if (sumAndCount[1] == 0)
+            return OptionalDouble.empty();
+        return OptionalDouble.of((double) sumAndCount[0] / sumAndCount[1]);
+    }
+
+    @Override
+    public IntSummaryStatistics summaryStatistics() {
+        return fallback().summaryStatistics();
+    }
+
+    @Override
+    public boolean anyMatch(IntPredicate predicate) {
+        return !noneMatch(predicate);
+    }
+
+    @Override
+    public boolean allMatch(IntPredicate predicate) {
+        AssertIntrinsics.kexNotNull(predicate);
+        return firstMatch(v -> !predicate.test(v), new int[1]) == fence;
+    }
+
+    @Override
+    public boolean noneMatch(IntPredicate predicate) {
+        AssertIntrinsics.kexNotNull(predicate);
+        return firstMatch(predicate, new int[1]) == fence;
+    }
+
+    /**
+     * Same search as {@link ArrayStream#findFirst()}.
+     */
+    @Override
+    public OptionalInt findFirst() {
+        if (fence == origin)
+            return OptionalInt.empty();
+        if (array != null)
+            return OptionalInt.of(array[origin]);
+        int[] first = new int[1];
+        if (!filtered) {
+            stage.apply(origin, v -> first[0] = v);
+            return OptionalInt.of(first[0]);
+        }
+        if (firstMatch(v -> true, first) == fence)
+            return OptionalInt.empty();
+        return OptionalInt.of(first[0]);
+    }
+
+    @Override
+    public OptionalInt findAny() {
+        return findFirst();
+    }
+
+    @Override
+    public LongStream asLongStream() {
+        return fallback().asLongStream();
+    }
+
+    @Override
+    public DoubleStream asDoubleStream() {
+        return fallback().asDoubleStream();
+    }
+
+    @Override
+    public Stream<Integer> boxed() {
+        return mapToObj(Integer::valueOf);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        if (array != null)
+            return new ArraySpliterators.IntArraySpliterator(array, origin, fence, Spliterator.ORDERED);
+        return fallback().spliterator();
+    }
+
+    @Override
+    public boolean isParallel() {
+        return false;
+    }
+
+    @Override
+    public IntStream sequential() {
+        return this;
+    }
+
+    @Override
+    public IntStream parallel() {
+        return this;
+    }
+
+    @Override
+    public IntStream unordered() {
+        return this;
+    }
+
+    @Override
+    public IntStream onClose(Runnable closeHandler) {
+        return fallback().onClose(closeHandler);
+    }
+
+    @Override
+    public void close() {
+        // nothing
+    }
+}
@@ -26,7 +26,7 @@ package kex.java.util;
 
 import org.jetbrains.annotations.NotNull;
 import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
-import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
 
 import java.io.IOException;
 import java.io.InvalidObjectException;
@@ -141,27 +141,125 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> {
 
     private static final long serialVersionUID = 362498820763181265L;
 
+    /**
+     * The iteration ordering method for this linked hash map: <tt>true</tt>
+     * for access-order, <tt>false</tt> for insertion-order. Either way the
+     * entries are kept in the backing arrays in iteration order.
+     */
+    final boolean accessOrder;
+
     public LinkedHashMap(int initialCapacity, float loadFactor) {
         super(initialCapacity, loadFactor);
+        accessOrder = false;
     }
 
     public LinkedHashMap(int initialCapacity) {
         super(initialCapacity);
+        accessOrder = false;
     }
 
     public LinkedHashMap() {
         super();
+        accessOrder = false;
     }
 
     public LinkedHashMap(Map<? extends K, ? extends V> m) {
         super(m);
+        accessOrder = false;
+    }
+
+    public LinkedHashMap(int initialCapacity,
+                         float loadFactor,
+                         boolean accessOrder) {
+        super(initialCapacity, loadFactor);
+        this.accessOrder = accessOrder;
+    }
+
+    /**
+     * Moves the accessed entry to the end of the arrays, so that the least
+     * recently accessed entry is always the first one. Each backing array is
+     * rebuilt once, with the entries after the accessed one shifted left.
+     */
+    void afterNodeAccess(int index) {
+        int last = keys.size() - 1;
+        if (accessOrder && index != last) {
+            keys.elementData = moveToEnd(keys.elementData, index, last);
+            values.elementData = moveToEnd(values.elementData, index, last);
+        }
+    }
+
+    private static Object[] moveToEnd(Object[] elementData, int index, int last) {
+        Object moved = elementData[index];
+        return CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
+            if (i < index || i > last) return elementData[i];
+            else if (i < last) return elementData[i + 1];
+            else return moved;
+        });
+    }
+
+    /**
+     * Possibly evicts the eldest entry, which is the first one in the arrays.
+     * {@code LinkedHashMap} itself never evicts, so the eldest entry is only
+     * built for subclasses that may override {@link #removeEldestEntry}.
+     */
+    void afterNodeInsertion(boolean evict) {
+        if (evict && getClass() != LinkedHashMap.class && !keys.isEmpty()
+                && removeEldestEntry(new Node<>(keys.get(0), values.get(0)))) {
+            removeEntryAt(0);
+        }
+    }
+
+    public V get(Object key) {
+        contracts();
+        int index = indexOfKey(key);
+        if (index == -1)
+            return null;
+        V value = values.get(index);
+        afterNodeAccess(index);
+        return value;
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        contracts();
+        int index = indexOfKey(key);
+        if (index == -1)
+            return defaultValue;
+        V value = values.get(index);
+        afterNodeAccess(index);
+        return value;
+    }
+
+    /**
+     * Returns <tt>true</tt> if this map should remove its eldest entry.
+     * This method is invoked by <tt>put</tt> and <tt>putAll</tt> after
+     * inserting a new entry into the map.  It provides the implementor
+     * with the opportunity to remove the eldest entry each time a new one
+     * is added.  This is useful if the map represents a cache: it allows
+     * the map to reduce memory consumption by deleting stale entries.
+     *
+     * @param eldest The least recently inserted entry in the map, or if
+     *               this is an access-ordered map, the least recently accessed
+     *               entry.
+     * @return <tt>true</tt> if the eldest entry should be removed
+     * from the map; <tt>false</tt> if it should be retained.
+     */
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return false;
     }
 
     public Set<K> keySet() {
-        return new LinkedKeySet();
+        Set<K> view = keySetView;
+        if (view == null)
+            return keySetView = new LinkedKeySet();
+        AssertIntrinsics.kexAssume(view instanceof LinkedHashMap<?, ?>.LinkedKeySet && ((LinkedHashMap<?, ?>.LinkedKeySet) view).map() == this);
+        return view;
     }
 
     final class LinkedKeySet extends AbstractSet<K> {
+        final LinkedHashMap<K, V> map() {
+            return LinkedHashMap.this;
+        }
+
         public final int size() {
             return LinkedHashMap.this.size();
         }
@@ -184,20 +282,27 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> {
         }
 
         public final Spliterator<K> spliterator() {
-            LinkedHashMap.this.contracts();
-            return UnknownIntrinsics.kexUnknown();
+            return keySpliterator(Spliterator.ORDERED | Spliterator.DISTINCT);
         }
 
         public final void forEach(Consumer<? super K> action) {
-            LinkedHashMap.this.contracts();
+            forEachKey(action);
         }
     }
 
     public Collection<V> values() {
-        return new LinkedValues();
+        Collection<V> view = valuesView;
+        if (view == null)
+            return valuesView = new LinkedValues();
+        AssertIntrinsics.kexAssume(view instanceof LinkedHashMap<?, ?>.LinkedValues && ((LinkedHashMap<?, ?>.LinkedValues) view).map() == this);
+        return view;
     }
 
     final class LinkedValues extends AbstractCollection<V> {
+        final LinkedHashMap<K, V> map() {
+            return LinkedHashMap.this;
+        }
+
         public final int size() {
             return LinkedHashMap.this.size();
         }
@@ -216,19 +321,27 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> {
         }
 
         public final Spliterator<V> spliterator() {
-            LinkedHashMap.this.contracts();
-            return UnknownIntrinsics.kexUnknown();
+            return valueSpliterator(Spliterator.ORDERED);
         }
 
         public final void forEach(Consumer<? super V> action) {
+            forEachValue(action);
         }
     }
 
     public Set<Map.Entry<K, V>> entrySet() {
-        return new LinkedEntrySet();
+        Set<Map.Entry<K, V>> view = entrySetView;
+        if (view == null)
+            return entrySetView = new LinkedEntrySet();
+        AssertIntrinsics.kexAssume(view instanceof LinkedHashMap<?, ?>.LinkedEntrySet && ((LinkedHashMap<?, ?>.LinkedEntrySet) view).map() == this);
+        return view;
     }
 
     final class LinkedEntrySet extends AbstractSet<Map.Entry<K, V>> {
+        final LinkedHashMap<K, V> map() {
+            return LinkedHashMap.this;
+        }
+
         public final int size() {
             return LinkedHashMap.this.size();
         }
@@ -261,10 +374,12 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> {
         }
 
         public final Spliterator<Map.Entry<K, V>> spliterator() {
-            return UnknownIntrinsics.kexUnknown();
+            return entrySpliterator(Spliterator.ORDERED | Spliterator.DISTINCT);
         }
 
-        public final void forEach(Consumer<? super Map.Entry<K, V>> action) {}
+        public final void forEach(Consumer<? super Map.Entry<K, V>> action) {
+            forEachEntry(action);
+        }
     }
 
     /* ------------------------------------------------------------ */
@@ -279,7 +394,7 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> {
     @SuppressWarnings("unchecked")
     @Override
     public Object clone() {
-        LinkedHashMap<K, V> result = new LinkedHashMap<>();
+        LinkedHashMap<K, V> result = new LinkedHashMap<>(keys.size(), DEFAULT_LOAD_FACTOR, accessOrder);
         result.keys = (ArrayList<K>) this.keys.clone();
         result.values = (ArrayList<V>) this.values.clone();
         return result;
@@ -289,41 +404,24 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> {
     // iterators
 
     abstract class LinkedHashIterator<T> extends HashIterator<T> {
-        public final boolean hasNext() {
-            LinkedHashMap.this.contracts();
-            return cursor < LinkedHashMap.this.keys.size();
-        }
-
-        public final void remove() {
-            LinkedHashMap.this.contracts();
-            if (lastRet < 0)
-                throw new IllegalStateException();
-
-            LinkedHashMap.this.remove(keys.get(lastRet));
-            cursor = lastRet;
-            lastRet = -1;
-        }
     }
 
     final class LinkedKeyIterator extends LinkedHashIterator<K> {
         public final K next() {
-            LinkedHashMap.this.contracts();
-            return keys.get(cursor++);
+            return keys.get(nextIndex());
         }
     }
 
     final class LinkedValueIterator extends LinkedHashIterator<V> {
         public final V next() {
-            LinkedHashMap.this.contracts();
-            return values.get(cursor++);
+            return values.get(nextIndex());
         }
     }
 
 
     final class LinkedEntryIterator extends LinkedHashIterator<Map.Entry<K, V>> {
         public final Map.Entry<K, V> next() {
-            LinkedHashMap.this.contracts();
-            return new Node<>(keys.get(cursor), values.get(cursor++));
+            return new EntryView(nextIndex());
         }
     }
 }
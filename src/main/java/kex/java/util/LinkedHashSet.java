@@ -24,12 +24,8 @@ package kex.java.util;
  * questions.
  */
 
-import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
-
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.Set;
-import java.util.Spliterator;
 
 /**
  * <p>Hash table and linked list implementation of the <tt>Set</tt> interface,
@@ -121,89 +117,21 @@ public class LinkedHashSet<E>
         extends HashSet<E>
         implements Set<E>, Cloneable, java.io.Serializable {
 
-    public LinkedHashSet() {
-        inner = new LinkedHashMap<>();
-    }
-
-    public LinkedHashSet(Collection<? extends E> c) {
-        inner = new LinkedHashMap<>();
-        addAll(c);
-    }
+    // elements of HashSet are already kept in insertion order
 
     public LinkedHashSet(int initialCapacity, float loadFactor) {
-        inner = new LinkedHashMap<>(initialCapacity, loadFactor);
+        super(initialCapacity, loadFactor, true);
     }
 
     public LinkedHashSet(int initialCapacity) {
-        inner = new LinkedHashMap<>(initialCapacity);
-    }
-
-    LinkedHashSet(int initialCapacity, float loadFactor, boolean dummy) {
-        inner = new LinkedHashMap<>(initialCapacity, loadFactor);
-    }
-
-    @Override
-    protected void contracts() {
-        AssertIntrinsics.kexNotNull(inner);
-    }
-
-    @Override
-    public Iterator<E> iterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.keySet().iterator();
-    }
-
-    @Override
-    public int size() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.size();
-    }
-
-    @Override
-    public boolean isEmpty() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.isEmpty();
-    }
-
-    @Override
-    public boolean contains(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.containsKey(o);
-    }
-
-    @Override
-    public boolean add(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        if (!inner.containsKey(e)) {
-            inner.put(e, new Object());
-            return true;
-        }
-        return false;
+        super(initialCapacity, .75f, true);
     }
 
-    @Override
-    public boolean remove(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(o) != null;
-    }
-
-    @Override
-    public void clear() {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.clear();
-    }
-
-    @Override
-    public Object clone() {
-        AssertIntrinsics.kexNotNull(inner);
-        HashSet<E> v = new HashSet<>();
-        v.inner = (LinkedHashMap<E, Object>) inner.clone();
-        return v;
+    public LinkedHashSet() {
+        super(16, .75f, true);
     }
 
-    @Override
-    public Spliterator<E> spliterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.keySet().spliterator();
+    public LinkedHashSet(Collection<? extends E> c) {
+        super(c);
     }
 }
@@ -26,10 +26,13 @@
 package kex.java.util;
 
 import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
 import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
 
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Doubly-linked list implementation of the {@code List} and {@code Deque}
@@ -87,110 +90,227 @@ public class LinkedList<E>
         extends AbstractSequentialList<E>
         implements List<E>, Deque<E>, Cloneable, java.io.Serializable
 {
-    private ArrayList<E> inner;
+    /**
+     * The elements of the list are stored in {@code elements[head, tail)},
+     * the element with index {@code i} is {@code elements[head + i]}.
+     * The array has an unknown capacity with a free room on both sides, so
+     * operations on the first and the last element are a single store and
+     * an index update.
+     */
+    Object[] elements;
+    int head;
+    int tail;
 
     public LinkedList() {
-        inner = new ArrayList<>();
+        allocateElements(0);
     }
 
     public LinkedList(Collection<? extends E> c) {
-        inner = new ArrayList<>(c);
+        Object[] a = c.toArray();
+        allocateElements(a.length);
+        int start = head;
+        elements = CollectionIntrinsics.generateObjectArray(elements.length, index -> {
+            if (index < start) return null;
+            else if (index < start + a.length) return a[index - start];
+            else return null;
+        });
+        tail = start + a.length;
+    }
+
+    private void allocateElements(int numElements) {
+        int capacity = UnknownIntrinsics.kexUnknownInt();
+        int start = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(start >= 0);
+        AssertIntrinsics.kexAssume(capacity >= start + numElements);
+        elements = new Object[capacity];
+        head = start;
+        tail = start;
+    }
+
+    /**
+     * Moves the elements to the new array of unknown capacity, that has at
+     * least {@code room} free slots before the first element and after the
+     * last one.
+     */
+    private void grow(int room) {
+        int size = tail - head;
+        int oldHead = head;
+        int newCapacity = UnknownIntrinsics.kexUnknownInt();
+        int newHead = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(newHead >= room);
+        AssertIntrinsics.kexAssume(newCapacity >= newHead + size + room);
+        elements = CollectionIntrinsics.generateObjectArray(newCapacity, index -> {
+            if (index < newHead) return null;
+            else if (index < newHead + size) return elements[oldHead + index - newHead];
+            else return null;
+        });
+        head = newHead;
+        tail = newHead + size;
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(elements);
+        AssertIntrinsics.kexAssume(head >= 0);
+        AssertIntrinsics.kexAssume(head <= tail);
+        AssertIntrinsics.kexAssume(tail <= elements.length);
+    }
+
+    private void checkElementIndex(int index) {
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index < tail - head);
+    }
+
+    private void checkPositionIndex(int index) {
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index <= tail - head);
+    }
+
+    /**
+     * Removes the element at the specified position in the elements array.
+     * The first and the last elements are removed by moving the bound,
+     * the others by shifting the elements after them to the head.
+     */
+    @SuppressWarnings("unchecked")
+    private E delete(int i) {
+        E oldValue = (E) elements[i];
+        if (i == head) {
+            elements[head++] = null;
+        } else if (i == tail - 1) {
+            elements[--tail] = null;
+        } else {
+            int oldTail = tail;
+            elements = CollectionIntrinsics.generateObjectArray(elements.length, index -> {
+                if (index < i) return elements[index];
+                else if (index < oldTail - 1) return elements[index + 1];
+                else return null;
+            });
+            tail = oldTail - 1;
+        }
+        return oldValue;
     }
 
     @Override
     public void addFirst(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(0, e);
+        contracts();
+        if (head == 0)
+            grow(1);
+        elements[--head] = e;
     }
 
     @Override
     public void addLast(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(e);
+        contracts();
+        if (tail == elements.length)
+            grow(1);
+        elements[tail++] = e;
     }
 
     @Override
     public boolean contains(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.contains(o);
+        return indexOf(o) >= 0;
     }
 
     @Override
     public boolean offerFirst(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(0, e);
+        addFirst(e);
         return true;
     }
 
     @Override
     public boolean offerLast(E e) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(e);
+        addLast(e);
         return true;
     }
 
     @Override
     public E removeFirst() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(0);
+        contracts();
+        if (head == tail)
+            throw new NoSuchElementException();
+        return delete(head);
     }
 
     @Override
     public E removeLast() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(inner.size() - 1);
+        contracts();
+        if (head == tail)
+            throw new NoSuchElementException();
+        return delete(tail - 1);
     }
 
     @Override
     public E pollFirst() {
-        AssertIntrinsics.kexNotNull(inner);
-        E res = inner.get(0);
-        inner.remove(0);
-        return res;
+        contracts();
+        if (head == tail)
+            return null;
+        return delete(head);
     }
 
     @Override
     public E pollLast() {
-        AssertIntrinsics.kexNotNull(inner);
-        E res = inner.get(inner.size() - 1);
-        inner.remove(inner.size() - 1);
-        return res;
+        contracts();
+        if (head == tail)
+            return null;
+        return delete(tail - 1);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E getFirst() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.get(0);
+        contracts();
+        if (head == tail)
+            throw new NoSuchElementException();
+        return (E) elements[head];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E getLast() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.get(inner.size() - 1);
+        contracts();
+        if (head == tail)
+            throw new NoSuchElementException();
+        return (E) elements[tail - 1];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E peekFirst() {
-        AssertIntrinsics.kexNotNull(inner);
-        return getFirst();
+        contracts();
+        if (head == tail)
+            return null;
+        return (E) elements[head];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E peekLast() {
-        AssertIntrinsics.kexNotNull(inner);
-        return getLast();
+        contracts();
+        if (head == tail)
+            return null;
+        return (E) elements[tail - 1];
     }
 
     @Override
     public boolean removeFirstOccurrence(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(o);
+        int index = indexOf(o);
+        if (index < 0)
+            return false;
+        delete(head + index);
+        return true;
     }
 
     @Override
     public boolean removeLastOccurrence(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return UnknownIntrinsics.kexUnknownBoolean();
+        int index = lastIndexOf(o);
+        if (index < 0)
+            return false;
+        delete(head + index);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
     }
 
     @Override
@@ -215,7 +335,7 @@ public class LinkedList<E>
 
     @Override
     public E peek() {
-        return getFirst();
+        return peekFirst();
     }
 
     @Override
@@ -231,56 +351,114 @@ public class LinkedList<E>
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.addAll(c);
+        contracts();
+        return addAll(tail - head, c);
     }
 
     @Override
     public boolean addAll(int index, Collection<? extends E> c) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.addAll(index, c);
+        contracts();
+        checkPositionIndex(index);
+        Object[] a = c.toArray();
+        int numNew = a.length;
+        if (numNew == 0)
+            return false;
+        if (tail + numNew > elements.length)
+            grow(numNew);
+        int start = head + index;
+        int oldTail = tail;
+        elements = CollectionIntrinsics.generateObjectArray(elements.length, i -> {
+            if (i < start) return elements[i];
+            else if (i < start + numNew) return a[i - start];
+            else if (i < oldTail + numNew) return elements[i - numNew];
+            else return null;
+        });
+        tail = oldTail + numNew;
+        return true;
     }
 
     @Override
     public void clear() {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.clear();
+        contracts();
+        tail = head;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E get(int index) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.get(index);
+        contracts();
+        checkElementIndex(index);
+        return (E) elements[head + index];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public E set(int index, E element) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.set(index, element);
+        contracts();
+        checkElementIndex(index);
+        E oldValue = (E) elements[head + index];
+        elements[head + index] = element;
+        return oldValue;
     }
 
     @Override
     public void add(int index, E element) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.add(index, element);
+        contracts();
+        checkPositionIndex(index);
+        if (index == tail - head) {
+            addLast(element);
+        } else if (index == 0) {
+            addFirst(element);
+        } else {
+            if (tail == elements.length)
+                grow(1);
+            int position = head + index;
+            int oldTail = tail;
+            elements = CollectionIntrinsics.generateObjectArray(elements.length, i -> {
+                if (i < position) return elements[i];
+                else if (i == position) return element;
+                else if (i <= oldTail) return elements[i - 1];
+                else return null;
+            });
+            tail = oldTail + 1;
+        }
     }
 
     @Override
     public E remove(int index) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.remove(index);
+        contracts();
+        checkElementIndex(index);
+        return delete(head + index);
     }
 
     @Override
     public int indexOf(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.indexOf(o);
+        contracts();
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < tail - head);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, tail, index -> !ObjectIntrinsics.equals(o, elements[index])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, head + result, index -> !ObjectIntrinsics.equals(o, elements[index])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elements[head + result]));
+        }
+        return result;
     }
 
     @Override
     public int lastIndexOf(Object o) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.indexOf(o);
+        contracts();
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < tail - head);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head, tail, index -> !ObjectIntrinsics.equals(o, elements[index])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(head + result + 1, tail, index -> !ObjectIntrinsics.equals(o, elements[index])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elements[head + result]));
+        }
+        return result;
     }
 
     @Override
@@ -290,122 +468,181 @@ public class LinkedList<E>
 
     @Override
     public int size() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.size();
+        contracts();
+        return tail - head;
     }
 
     @Override
     public Iterator<E> descendingIterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return new ListItr(0);
+        return new DescendingIterator();
     }
 
     @Override
     public ListIterator<E> listIterator(int i) {
-        AssertIntrinsics.kexNotNull(inner);
+        contracts();
+        checkPositionIndex(i);
         return new ListItr(i);
     }
 
     @Override
     public ListIterator<E> listIterator() {
-        AssertIntrinsics.kexNotNull(inner);
         return new ListItr(0);
     }
 
     @Override
     public Iterator<E> iterator() {
-        AssertIntrinsics.kexNotNull(inner);
         return new ListItr(0);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public Object clone() {
-        AssertIntrinsics.kexNotNull(inner);
-        LinkedList<E> v = new LinkedList<>();
-        v.inner = (ArrayList<E>) inner.clone();
-        return v;
+        contracts();
+        try {
+            LinkedList<E> v = (LinkedList<E>) super.clone();
+            v.elements = Arrays.copyOf(elements, elements.length);
+            v.modCount = 0;
+            return v;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
     }
 
     @Override
     public Object[] toArray() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.toArray();
+        contracts();
+        return Arrays.copyOfRange(elements, head, tail);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public <T> T[] toArray(T[] a) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.toArray(a);
+        contracts();
+        return Arrays.copyOfRange(elements, head, tail, (Class<? extends T[]>) a.getClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void sort(Comparator<? super E> c) {
+        contracts();
+        Arrays.sort((E[]) elements, head, tail, c);
+    }
+
+    @Override
+    public String toString() {
+        contracts();
+        return Collections.collectionToString(this, elements, head, tail);
     }
 
     @Override
     public Spliterator<E> spliterator() {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.spliterator();
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(elements, head, tail, Spliterator.ORDERED);
     }
 
     @Override
-    public List<E> subList(int fromIndex, int toIndex) {
-        AssertIntrinsics.kexNotNull(inner);
-        return inner.subList(fromIndex, toIndex);
+    public Stream<E> stream() {
+        contracts();
+        return new ArrayStream<>(elements, head, tail);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public void forEach(Consumer<? super E> action) {
-        AssertIntrinsics.kexNotNull(inner);
-        inner.forEach(action);
+        AssertIntrinsics.kexNotNull(action);
+        contracts();
+        CollectionIntrinsics.forEach(head, tail, index -> action.accept((E) elements[index]));
     }
 
     private class ListItr implements ListIterator<E> {
-        ArrayList<E>.ListItr listItr;
+        int cursor;
+        int lastRet = -1;
+
         ListItr(int index) {
-            listItr = (ArrayList<E>.ListItr) inner.listIterator(index);
+            cursor = index;
         }
 
         @Override
         public boolean hasNext() {
-            return listItr.hasNext();
+            contracts();
+            return cursor < tail - head;
         }
 
         @SuppressWarnings("unchecked")
         @Override
         public E next() {
-            return listItr.next();
+            contracts();
+            if (cursor >= tail - head)
+                throw new NoSuchElementException();
+            lastRet = cursor++;
+            return (E) elements[head + lastRet];
         }
 
         @Override
         public void remove() {
-            listItr.remove();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            LinkedList.this.remove(lastRet);
+            if (lastRet < cursor)
+                cursor--;
+            lastRet = -1;
         }
 
         @Override
         public boolean hasPrevious() {
-            return listItr.hasPrevious();
+            return cursor > 0;
         }
 
         @Override
         public int nextIndex() {
-            return listItr.nextIndex();
+            return cursor;
         }
 
         @Override
         public int previousIndex() {
-            return listItr.previousIndex();
+            return cursor - 1;
         }
 
+        @SuppressWarnings("unchecked")
         @Override
         public E previous() {
-            return listItr.previous();
+            contracts();
+            if (cursor <= 0)
+                throw new NoSuchElementException();
+            lastRet = --cursor;
+            return (E) elements[head + lastRet];
         }
 
         @Override
         public void set(E e) {
-            listItr.set(e);
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            LinkedList.this.set(lastRet, e);
         }
 
         @Override
         public void add(E e) {
-            listItr.add(e);
+            LinkedList.this.add(cursor++, e);
+            lastRet = -1;
+        }
+    }
+
+    private class DescendingIterator implements Iterator<E> {
+        private final ListItr itr = new ListItr(size());
+
+        @Override
+        public boolean hasNext() {
+            return itr.hasPrevious();
+        }
+
+        @Override
+        public E next() {
+            return itr.previous();
+        }
+
+        @Override
+        public void remove() {
+            itr.remove();
         }
     }
 
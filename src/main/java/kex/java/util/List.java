@@ -3,6 +3,8 @@ package kex.java.util;
 import org.jetbrains.annotations.NotNull;
 import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
 import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
 
 import java.util.Collection;
 
@@ -77,34 +79,32 @@ abstract class List<E> implements java.util.List<E> {
 
     @Override
     public int indexOf(Object o) {
-        return indexOfFrom(0, o);
-    }
-
-    @Override
-    public int lastIndexOf(Object o) {
-        return indexOfFromReversed(elementData.length - 1, o);
-    }
-
-    private int indexOfFrom(int index, Object o) {
-        if (index >= elementData.length) return -1;
-        Object element = elementData[index];
-        if (o == null) {
-            if (element == null) return index;
+        AssertIntrinsics.kexNotNull(elementData);
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < elementData.length);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, elementData.length, index -> !ObjectIntrinsics.equals(o, elementData[index])));
         } else {
-            if (o.equals(element)) return index;
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, result, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[result]));
         }
-        return indexOfFrom(index + 1, o);
+        return result;
     }
 
-    private int indexOfFromReversed(int index, Object o) {
-        if (index <= 0) return -1;
-        Object element = elementData[index];
-        if (o == null) {
-            if (element == null) return index;
+    @Override
+    public int lastIndexOf(Object o) {
+        AssertIntrinsics.kexNotNull(elementData);
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < elementData.length);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, elementData.length, index -> !ObjectIntrinsics.equals(o, elementData[index])));
         } else {
-            if (o.equals(element)) return index;
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, elementData.length, index -> !ObjectIntrinsics.equals(o, elementData[index])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[result]));
         }
-        return indexOfFrom(index - 1, o);
+        return result;
     }
 
     @Override
@@ -137,81 +137,57 @@ abstract class List<E> implements java.util.List<E> {
 
     @Override
     public boolean containsAll(@NotNull Collection<?> c) {
-        if (c instanceof java.util.List) {
-            return containsAllList((java.util.List) c);
-        } else {
-            return false;
-        }
+        AssertIntrinsics.kexNotNull(elementData);
+        Object[] other = c.toArray();
+        return CollectionIntrinsics.forAll(0, other.length, index -> CollectionIntrinsics.contains(elementData, other[index]));
     }
 
     @Override
     public boolean addAll(@NotNull Collection<? extends E> c) {
-        if (c instanceof java.util.List) {
-            return addAllList((java.util.List<E>) c);
-        } else {
-            return false;
-        }
+        AssertIntrinsics.kexNotNull(elementData);
+        Object[] other = c.toArray();
+        int numNew = other.length;
+        if (numNew == 0) return false;
+        int oldLength = elementData.length;
+        elementData = CollectionIntrinsics.arrayCopyAndGrow(elementData, numNew);
+        CollectionIntrinsics.forEach(0, numNew, index -> elementData[oldLength + index] = other[index]);
+        return true;
     }
 
     @Override
     public boolean addAll(int index, @NotNull Collection<? extends E> c) {
-        if (c instanceof java.util.List) {
-            return addAllList(index, (java.util.List<E>) c);
-        } else {
-            return false;
+        AssertIntrinsics.kexNotNull(elementData);
+        if (index < 0 || index > elementData.length) {
+            throw new IndexOutOfBoundsException();
         }
+        Object[] other = c.toArray();
+        int numNew = other.length;
+        if (numNew == 0) return false;
+        elementData = CollectionIntrinsics.arrayCopyAndShiftRight(elementData, index, numNew);
+        CollectionIntrinsics.forEach(0, numNew, i -> elementData[index + i] = other[i]);
+        return true;
     }
 
     @Override
     public boolean removeAll(@NotNull Collection<?> c) {
-        if (c instanceof java.util.List) {
-            return removeAllList((java.util.List) c);
-        } else {
-            return false;
-        }
+        return batchRemove(c, false);
     }
 
     @Override
     public boolean retainAll(@NotNull Collection<?> c) {
-        if (c instanceof java.util.List) {
-            return retainAllList((java.util.List) c);
-        } else {
-            return false;
-        }
+        return batchRemove(c, true);
     }
 
-
-    private boolean containsAllList(java.util.List c) {
-        return false;
-    }
-
-    private boolean addAllList(java.util.List<E> c) {
-        int length = c.size();
-        if (length == 0) {
-            return false;
-        } else {
-            addAllHelper(0, length, c);
-            return true;
-        }
-    }
-
-    private void addAllHelper(int i, int length, java.util.List<E> c) {
-        if (i == length) return;
-        E value = c.get(i);
-        add(value);
-        addAllHelper(i + 1, length, c);
-    }
-
-    private boolean addAllList(int index, java.util.List<E> c) {
-        return false;
-    }
-
-    private boolean retainAllList(java.util.List c) {
-        return false;
-    }
-
-    private boolean removeAllList(java.util.List c) {
-        return false;
+    /**
+     * Compacts the kept elements with the helper of {@link ArrayList} and
+     * trims the rest.
+     */
+    private boolean batchRemove(Collection<?> c, boolean complement) {
+        AssertIntrinsics.kexNotNull(elementData);
+        int oldLength = elementData.length;
+        int written = ArrayList.batchRemove(elementData, oldLength, c, complement);
+        if (written == oldLength) return false;
+        elementData = CollectionIntrinsics.arrayCopyAndTrim(elementData, oldLength - written);
+        return true;
     }
-
 }
@@ -0,0 +1,337 @@
+package kex.java.util;
+/*
+ * Copyright (c) 2003, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * An unbounded priority {@linkplain Queue queue}. The elements of the
+ * priority queue are ordered according to their {@linkplain Comparable
+ * natural ordering}, or by a {@link Comparator} provided at queue
+ * construction time, depending on which constructor is used. A priority
+ * queue does not permit {@code null} elements.
+ *
+ * <p>Unlike the JDK binary heap, the model keeps the elements in no
+ * particular order. The head of the queue is an element of unknown index
+ * that is not greater than any other one, which is stated by a single
+ * quantified constraint, so insertions and removals never sift the
+ * elements up or down.
+ *
+ * <p>The Iterator provided in method {@link #iterator()} is <em>not</em>
+ * guaranteed to traverse the elements of the priority queue in any
+ * particular order.
+ *
+ * @param <E> the type of elements held in this collection
+ * @author Josh Bloch, Doug Lea
+ * @since 1.5
+ */
+public class PriorityQueue<E> extends AbstractQueue<E>
+        implements java.io.Serializable {
+
+    private static final long serialVersionUID = -7720805057305804111L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 11;
+
+    /**
+     * Elements of the queue in no particular order, the rest of the array
+     * is spare capacity.
+     */
+    transient Object[] queue;
+
+    /**
+     * The number of elements in the priority queue.
+     */
+    private int size = 0;
+
+    /**
+     * The comparator, or null if priority queue uses elements'
+     * natural ordering.
+     */
+    private final Comparator<? super E> comparator;
+
+    public PriorityQueue() {
+        this(DEFAULT_INITIAL_CAPACITY, null);
+    }
+
+    public PriorityQueue(int initialCapacity) {
+        this(initialCapacity, null);
+    }
+
+    public PriorityQueue(Comparator<? super E> comparator) {
+        this(DEFAULT_INITIAL_CAPACITY, comparator);
+    }
+
+    public PriorityQueue(int initialCapacity,
+                         Comparator<? super E> comparator) {
+        if (initialCapacity < 1)
+            throw new IllegalArgumentException();
+        int actualCapacity = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(actualCapacity >= initialCapacity);
+        this.queue = new Object[actualCapacity];
+        this.comparator = comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    public PriorityQueue(Collection<? extends E> c) {
+        if (c instanceof SortedSet<?>) {
+            this.comparator = (Comparator<? super E>) ((SortedSet<? extends E>) c).comparator();
+        } else if (c instanceof PriorityQueue<?>) {
+            this.comparator = (Comparator<? super E>) ((PriorityQueue<? extends E>) c).comparator();
+        } else {
+            this.comparator = null;
+        }
+        initElementsFromCollection(c);
+    }
+
+    @SuppressWarnings("unchecked")
+    public PriorityQueue(PriorityQueue<? extends E> c) {
+        this.comparator = (Comparator<? super E>) c.comparator();
+        initElementsFromCollection(c);
+    }
+
+    @SuppressWarnings("unchecked")
+    public PriorityQueue(SortedSet<? extends E> c) {
+        this.comparator = (Comparator<? super E>) c.comparator();
+        initElementsFromCollection(c);
+    }
+
+    /**
+     * The elements are kept unordered, so any collection is taken as is,
+     * there is no need to heapify it.
+     */
+    private void initElementsFromCollection(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        AssertIntrinsics.kexNotNull(a);
+        if (!CollectionIntrinsics.forAll(0, a.length, i -> a[i] != null))
+            throw new NullPointerException();
+        this.queue = a;
+        this.size = a.length;
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(queue);
+        AssertIntrinsics.kexAssume(size >= 0);
+        AssertIntrinsics.kexAssume(size <= queue.length);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, size, i -> queue[i] != null));
+    }
+
+    /**
+     * Replaces the backing array with the one of unknown capacity, that is
+     * enough to hold at least {@code minCapacity} elements.
+     */
+    private void grow(int minCapacity) {
+        int newCapacity = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(newCapacity >= minCapacity);
+        int oldSize = size;
+        queue = CollectionIntrinsics.generateObjectArray(newCapacity, index -> {
+            if (index < oldSize) return queue[index];
+            else return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object first, Object second) {
+        return comparator == null ? ((Comparable<? super E>) first).compareTo((E) second)
+                : comparator.compare((E) first, (E) second);
+    }
+
+    /**
+     * Locates the head of the queue: an element that is not greater than
+     * any element of the queue. Among equal minimal elements the one with
+     * the lowest index is taken, so the head does not depend on the solver.
+     *
+     * @return index of the head, or -1 if the queue is empty
+     */
+    private int indexOfHead() {
+        if (size == 0)
+            return -1;
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index < size);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, index, i -> compare(queue[index], queue[i]) < 0));
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(index, size, i -> compare(queue[index], queue[i]) <= 0));
+        return index;
+    }
+
+    private int indexOf(Object o) {
+        if (o == null)
+            return -1;
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result < size);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, size, i -> !o.equals(queue[i])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, result, i -> !o.equals(queue[i])));
+            AssertIntrinsics.kexAssume(o.equals(queue[result]));
+        }
+        return result;
+    }
+
+    /**
+     * Removes the i-th element from the queue. The order of elements does
+     * not matter, so the last element takes its place.
+     */
+    @SuppressWarnings("unchecked")
+    private E removeAt(int i) {
+        E removed = (E) queue[i];
+        int s = --size;
+        queue[i] = queue[s];
+        queue[s] = null;
+        return removed;
+    }
+
+    public boolean add(E e) {
+        return offer(e);
+    }
+
+    public boolean offer(E e) {
+        contracts();
+        if (e == null)
+            throw new NullPointerException();
+        if (comparator == null && !(e instanceof Comparable))
+            throw new ClassCastException();
+        int i = size;
+        if (i >= queue.length)
+            grow(i + 1);
+        queue[i] = e;
+        size = i + 1;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        contracts();
+        int index = indexOfHead();
+        return index < 0 ? null : (E) queue[index];
+    }
+
+    public boolean remove(Object o) {
+        contracts();
+        int i = indexOf(o);
+        if (i == -1)
+            return false;
+        removeAt(i);
+        return true;
+    }
+
+    public boolean contains(Object o) {
+        contracts();
+        return indexOf(o) != -1;
+    }
+
+    public Object[] toArray() {
+        contracts();
+        return Arrays.copyOf(queue, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        contracts();
+        final int size = this.size;
+        if (a.length < size)
+            return (T[]) Arrays.copyOf(queue, size, a.getClass());
+        System.arraycopy(queue, 0, a, 0, size);
+        if (a.length > size)
+            a[size] = null;
+        return a;
+    }
+
+    @NotNull
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private final class Itr implements Iterator<E> {
+        private int cursor = 0;
+        private int lastRet = -1;
+
+        public boolean hasNext() {
+            contracts();
+            return cursor < size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            contracts();
+            if (cursor >= size)
+                throw new NoSuchElementException();
+            return (E) queue[lastRet = cursor++];
+        }
+
+        public void remove() {
+            contracts();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            // the last element, which is not visited yet, takes the removed place
+            removeAt(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+        }
+    }
+
+    public int size() {
+        contracts();
+        return size;
+    }
+
+    public void clear() {
+        contracts();
+        queue = new Object[queue.length];
+        size = 0;
+    }
+
+    public E poll() {
+        contracts();
+        int index = indexOfHead();
+        if (index < 0)
+            return null;
+        return removeAt(index);
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        AssertIntrinsics.kexNotNull(action);
+        contracts();
+        CollectionIntrinsics.forEach(0, size, index -> action.accept((E) queue[index]));
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(queue, 0, size, Spliterator.NONNULL);
+    }
+}
@@ -0,0 +1,1236 @@
+package kex.java.util;
+/*
+ * Copyright (c) 1997, 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A {@link NavigableMap} implementation. The map is sorted according to the
+ * {@linkplain Comparable natural ordering} of its keys, or by a {@link
+ * Comparator} provided at map creation time, depending on which constructor
+ * is used.
+ *
+ * <p>Unlike the JDK red-black tree, the model keeps the keys in a sorted
+ * array, which is stated by a single quantified invariant. Positions of keys
+ * are unknown indices constrained by the keys on both sides of them, so
+ * lookups and navigation methods do not walk the tree.
+ *
+ * <p>Submaps, key sets and descending maps are views backed by the map. A
+ * descending view walks the same index range of the sorted arrays
+ * backwards and swaps the navigation methods of its ascending map.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Josh Bloch and Doug Lea
+ * @see Map
+ * @see HashMap
+ * @see Comparable
+ * @see Comparator
+ * @see Collection
+ * @since 1.2
+ */
+public class TreeMap<K, V> extends AbstractMap<K, V>
+        implements NavigableMap<K, V>, Cloneable, Serializable {
+
+    private static final long serialVersionUID = 919286545866124006L;
+
+    /**
+     * The comparator used to maintain order in this tree map, or
+     * null if it uses the natural ordering of its keys.
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Keys in ascending order and values of the same entries.
+     */
+    ArrayList<K> keys;
+    ArrayList<V> values;
+
+    public TreeMap() {
+        this.comparator = null;
+        this.keys = new ArrayList<>();
+        this.values = new ArrayList<>();
+    }
+
+    public TreeMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        this.keys = new ArrayList<>();
+        this.values = new ArrayList<>();
+    }
+
+    public TreeMap(Map<? extends K, ? extends V> m) {
+        this.comparator = null;
+        this.keys = new ArrayList<>();
+        this.values = new ArrayList<>();
+        putAll(m);
+    }
+
+    public TreeMap(SortedMap<K, ? extends V> m) {
+        this.comparator = m.comparator();
+        this.keys = new ArrayList<>();
+        this.values = new ArrayList<>();
+        putAll(m);
+    }
+
+    protected void contracts() {
+        AssertIntrinsics.kexNotNull(keys);
+        AssertIntrinsics.kexNotNull(values);
+        AssertIntrinsics.kexAssume(keys.size() == values.size());
+        AssertIntrinsics.kexAssume(
+                CollectionIntrinsics.forAll(0, keys.size() - 1, i ->
+                        compare(keys.elementData[i], keys.elementData[i + 1]) < 0)
+        );
+    }
+
+    /**
+     * Compares two keys using the correct comparison method for this TreeMap.
+     */
+    @SuppressWarnings("unchecked")
+    final int compare(Object k1, Object k2) {
+        return comparator == null ? ((Comparable<? super K>) k1).compareTo((K) k2)
+                : comparator.compare((K) k1, (K) k2);
+    }
+
+    /**
+     * Index of the first key that is not less than the given one, i.e. the
+     * index the key is inserted at.
+     */
+    final int lowerBound(Object key) {
+        int size = keys.size();
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index <= size);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, index, i -> compare(keys.elementData[i], key) < 0));
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(index, size, i -> compare(keys.elementData[i], key) >= 0));
+        return index;
+    }
+
+    /**
+     * Index of the first key that is greater than the given one.
+     */
+    final int upperBound(Object key) {
+        int size = keys.size();
+        int index = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(index >= 0);
+        AssertIntrinsics.kexAssume(index <= size);
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, index, i -> compare(keys.elementData[i], key) <= 0));
+        AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(index, size, i -> compare(keys.elementData[i], key) > 0));
+        return index;
+    }
+
+    /**
+     * @return index of the entry of the key, or -1 if the map contains no
+     * mapping for the key
+     */
+    final int indexOfKey(Object key) {
+        int index = lowerBound(key);
+        if (index < keys.size() && compare(keys.elementData[index], key) == 0) {
+            return index;
+        } else {
+            return -1;
+        }
+    }
+
+    /*
+     * Navigation inside the [from, to) range of entries, shared by the map
+     * and its submaps. Each method returns -1 if there is no such entry.
+     */
+
+    final int lowerIndex(Object key, int from, int to) {
+        int index = Math.min(lowerBound(key), to) - 1;
+        return index < from ? -1 : index;
+    }
+
+    final int floorIndex(Object key, int from, int to) {
+        int index = Math.min(upperBound(key), to) - 1;
+        return index < from ? -1 : index;
+    }
+
+    final int ceilingIndex(Object key, int from, int to) {
+        int index = Math.max(lowerBound(key), from);
+        return index >= to ? -1 : index;
+    }
+
+    final int higherIndex(Object key, int from, int to) {
+        int index = Math.max(upperBound(key), from);
+        return index >= to ? -1 : index;
+    }
+
+    static int firstIndex(int from, int to) {
+        return from < to ? from : -1;
+    }
+
+    static int lastIndex(int from, int to) {
+        return from < to ? to - 1 : -1;
+    }
+
+    final K keyOrNull(int index) {
+        return index < 0 ? null : keys.get(index);
+    }
+
+    final K keyOrThrow(int index) {
+        if (index < 0)
+            throw new NoSuchElementException();
+        return keys.get(index);
+    }
+
+    final Map.Entry<K, V> entryOrNull(int index) {
+        return index < 0 ? null : new AbstractMap.SimpleImmutableEntry<>(keys.get(index), values.get(index));
+    }
+
+    final Map.Entry<K, V> pollEntry(int index) {
+        if (index < 0)
+            return null;
+        Map.Entry<K, V> entry = entryOrNull(index);
+        removeEntryAt(index);
+        return entry;
+    }
+
+    void addEntryAt(int index, K key, V value) {
+        keys.add(index, key);
+        values.add(index, value);
+    }
+
+    V removeEntryAt(int index) {
+        keys.remove(index);
+        return values.remove(index);
+    }
+
+    void removeEntries(int from, int to) {
+        keys.removeRange(from, to);
+        values.removeRange(from, to);
+    }
+
+    public int size() {
+        contracts();
+        return keys.size();
+    }
+
+    public boolean isEmpty() {
+        contracts();
+        return keys.isEmpty();
+    }
+
+    public boolean containsKey(Object key) {
+        contracts();
+        return indexOfKey(key) >= 0;
+    }
+
+    public boolean containsValue(Object value) {
+        contracts();
+        return values.contains(value);
+    }
+
+    public V get(Object key) {
+        contracts();
+        int index = indexOfKey(key);
+        if (index == -1) return null;
+        else return values.get(index);
+    }
+
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    public K firstKey() {
+        contracts();
+        return keyOrThrow(firstIndex(0, keys.size()));
+    }
+
+    public K lastKey() {
+        contracts();
+        return keyOrThrow(lastIndex(0, keys.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<? extends K, ? extends V> map) {
+        contracts();
+        if (map instanceof TreeMap && isEmpty()) {
+            TreeMap<? extends K, ? extends V> other = (TreeMap<? extends K, ? extends V>) map;
+            other.contracts();
+            if (ObjectIntrinsics.equals(comparator, other.comparator)) {
+                // keys of the other map are already sorted the same way
+                keys = (ArrayList<K>) other.keys.clone();
+                values = (ArrayList<V>) other.values.clone();
+                return;
+            }
+        }
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    public V put(K key, V value) {
+        contracts();
+        if (keys.isEmpty()) {
+            compare(key, key); // type (and possibly null) check
+        }
+        int index = lowerBound(key);
+        if (index < keys.size() && compare(keys.elementData[index], key) == 0) {
+            return values.set(index, value);
+        } else {
+            addEntryAt(index, key, value);
+            return null;
+        }
+    }
+
+    public V remove(Object key) {
+        contracts();
+        int index = indexOfKey(key);
+        if (index >= 0) {
+            return removeEntryAt(index);
+        } else {
+            return null;
+        }
+    }
+
+    public void clear() {
+        contracts();
+        keys.clear();
+        values.clear();
+    }
+
+    /**
+     * Returns a shallow copy of this {@code TreeMap} instance. (The keys and
+     * values themselves are not cloned.)
+     *
+     * @return a shallow copy of this map
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object clone() {
+        contracts();
+        TreeMap<K, V> result = new TreeMap<>(comparator);
+        result.keys = (ArrayList<K>) this.keys.clone();
+        result.values = (ArrayList<V>) this.values.clone();
+        return result;
+    }
+
+    // NavigableMap API methods
+
+    public Map.Entry<K, V> firstEntry() {
+        contracts();
+        return entryOrNull(firstIndex(0, keys.size()));
+    }
+
+    public Map.Entry<K, V> lastEntry() {
+        contracts();
+        return entryOrNull(lastIndex(0, keys.size()));
+    }
+
+    public Map.Entry<K, V> pollFirstEntry() {
+        contracts();
+        return pollEntry(firstIndex(0, keys.size()));
+    }
+
+    public Map.Entry<K, V> pollLastEntry() {
+        contracts();
+        return pollEntry(lastIndex(0, keys.size()));
+    }
+
+    public Map.Entry<K, V> lowerEntry(K key) {
+        contracts();
+        return entryOrNull(lowerIndex(key, 0, keys.size()));
+    }
+
+    public K lowerKey(K key) {
+        contracts();
+        return keyOrNull(lowerIndex(key, 0, keys.size()));
+    }
+
+    public Map.Entry<K, V> floorEntry(K key) {
+        contracts();
+        return entryOrNull(floorIndex(key, 0, keys.size()));
+    }
+
+    public K floorKey(K key) {
+        contracts();
+        return keyOrNull(floorIndex(key, 0, keys.size()));
+    }
+
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        contracts();
+        return entryOrNull(ceilingIndex(key, 0, keys.size()));
+    }
+
+    public K ceilingKey(K key) {
+        contracts();
+        return keyOrNull(ceilingIndex(key, 0, keys.size()));
+    }
+
+    public Map.Entry<K, V> higherEntry(K key) {
+        contracts();
+        return entryOrNull(higherIndex(key, 0, keys.size()));
+    }
+
+    public K higherKey(K key) {
+        contracts();
+        return keyOrNull(higherIndex(key, 0, keys.size()));
+    }
+
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet(this, null, false);
+    }
+
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    public Collection<V> values() {
+        return new Values(null, false);
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet(null, false);
+    }
+
+    public NavigableMap<K, V> descendingMap() {
+        return new DescendingMap(null);
+    }
+
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive,
+                                    K toKey, boolean toInclusive) {
+        return new SubMap(false, fromKey, fromInclusive, false, toKey, toInclusive);
+    }
+
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new SubMap(true, null, true, false, toKey, inclusive);
+    }
+
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new SubMap(false, fromKey, inclusive, true, null, true);
+    }
+
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        contracts();
+        int index = indexOfKey(key);
+        if (index >= 0 && ObjectIntrinsics.equals(values.get(index), oldValue)) {
+            values.set(index, newValue);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        contracts();
+        int index = indexOfKey(key);
+        if (index >= 0) {
+            return values.set(index, value);
+        } else {
+            return null;
+        }
+    }
+
+    /* ------------------------------------------------------------ */
+    // Views
+
+    /**
+     * Bounds of the view: the submap it belongs to, or {@code null} for the
+     * whole map.
+     */
+    final int fromIndex(SubMap range) {
+        return range == null ? 0 : range.fromIndex();
+    }
+
+    final int toIndex(SubMap range) {
+        return range == null ? keys.size() : range.toIndex();
+    }
+
+    /**
+     * Elements of the [from, to) range of the array, reversed if the view is
+     * descending.
+     */
+    static Object[] rangeOf(Object[] elementData, int from, int to, boolean descending) {
+        if (!descending)
+            return elementData;
+        return CollectionIntrinsics.generateObjectArray(to, index ->
+                index < from ? null : elementData[to - 1 - (index - from)]);
+    }
+
+    final class Values extends AbstractCollection<V> {
+        private final SubMap range;
+        private final boolean descending;
+
+        Values(SubMap range, boolean descending) {
+            this.range = range;
+            this.descending = descending;
+        }
+
+        public int size() {
+            TreeMap.this.contracts();
+            return toIndex(range) - fromIndex(range);
+        }
+
+        @NotNull
+        public Iterator<V> iterator() {
+            TreeMap.this.contracts();
+            return new ValueIterator(fromIndex(range), toIndex(range), descending);
+        }
+
+        public void clear() {
+            TreeMap.this.contracts();
+            removeEntries(fromIndex(range), toIndex(range));
+        }
+
+        public Spliterator<V> spliterator() {
+            TreeMap.this.contracts();
+            int from = fromIndex(range);
+            int to = toIndex(range);
+            return new ArraySpliterators.ArraySpliterator<>(rangeOf(values.elementData, from, to, descending),
+                    from, to, Spliterator.ORDERED);
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        private final SubMap range;
+        private final boolean descending;
+
+        EntrySet(SubMap range, boolean descending) {
+            this.range = range;
+            this.descending = descending;
+        }
+
+        public int size() {
+            TreeMap.this.contracts();
+            return toIndex(range) - fromIndex(range);
+        }
+
+        @NotNull
+        public Iterator<Map.Entry<K, V>> iterator() {
+            TreeMap.this.contracts();
+            return new EntryIterator(fromIndex(range), toIndex(range), descending);
+        }
+
+        private int indexOfEntry(Object o) {
+            if (!(o instanceof Map.Entry))
+                return -1;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Object key = entry.getKey();
+            if (range != null && !range.inRange(key))
+                return -1;
+            int index = indexOfKey(key);
+            if (index >= 0 && ObjectIntrinsics.equals(values.get(index), entry.getValue()))
+                return index;
+            return -1;
+        }
+
+        public boolean contains(Object o) {
+            TreeMap.this.contracts();
+            return indexOfEntry(o) >= 0;
+        }
+
+        public boolean remove(Object o) {
+            TreeMap.this.contracts();
+            int index = indexOfEntry(o);
+            if (index < 0)
+                return false;
+            removeEntryAt(index);
+            return true;
+        }
+
+        public void clear() {
+            TreeMap.this.contracts();
+            removeEntries(fromIndex(range), toIndex(range));
+        }
+
+        @SuppressWarnings("unchecked")
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            TreeMap.this.contracts();
+            int from = fromIndex(range);
+            int size = toIndex(range) - from;
+            int last = from + size - 1;
+            Object[] entries = CollectionIntrinsics.generateObjectArray(size, index -> {
+                int i = descending ? last - index : from + index;
+                return new Node((K) keys.elementData[i], (V) values.elementData[i]);
+            });
+            return new ArraySpliterators.ArraySpliterator<>(entries, 0, size,
+                    Spliterator.ORDERED | Spliterator.DISTINCT);
+        }
+    }
+
+    /**
+     * Key set of the map, of one of its submaps or of a descending view of
+     * them, navigation is delegated to the map.
+     */
+    final class KeySet extends AbstractSet<K> implements NavigableSet<K> {
+        private final NavigableMap<K, V> m;
+        private final SubMap range;
+        private final boolean descending;
+
+        KeySet(NavigableMap<K, V> m, SubMap range, boolean descending) {
+            this.m = m;
+            this.range = range;
+            this.descending = descending;
+        }
+
+        @NotNull
+        public Iterator<K> iterator() {
+            TreeMap.this.contracts();
+            return new KeyIterator(fromIndex(range), toIndex(range), descending);
+        }
+
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        public int size() {
+            return m.size();
+        }
+
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        public boolean contains(Object o) {
+            return m.containsKey(o);
+        }
+
+        public void clear() {
+            m.clear();
+        }
+
+        public K lower(K e) {
+            return m.lowerKey(e);
+        }
+
+        public K floor(K e) {
+            return m.floorKey(e);
+        }
+
+        public K ceiling(K e) {
+            return m.ceilingKey(e);
+        }
+
+        public K higher(K e) {
+            return m.higherKey(e);
+        }
+
+        public K first() {
+            return m.firstKey();
+        }
+
+        public K last() {
+            return m.lastKey();
+        }
+
+        public Comparator<? super K> comparator() {
+            return m.comparator();
+        }
+
+        public K pollFirst() {
+            Map.Entry<K, V> e = m.pollFirstEntry();
+            return (e == null) ? null : e.getKey();
+        }
+
+        public K pollLast() {
+            Map.Entry<K, V> e = m.pollLastEntry();
+            return (e == null) ? null : e.getKey();
+        }
+
+        public boolean remove(Object o) {
+            int oldSize = size();
+            m.remove(o);
+            return size() != oldSize;
+        }
+
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive,
+                                      K toElement, boolean toInclusive) {
+            return m.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return m.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return m.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        public NavigableSet<K> descendingSet() {
+            return m.descendingKeySet();
+        }
+
+        public Spliterator<K> spliterator() {
+            TreeMap.this.contracts();
+            int from = fromIndex(range);
+            int to = toIndex(range);
+            return new ArraySpliterators.ArraySpliterator<>(rangeOf(keys.elementData, from, to, descending),
+                    from, to, Spliterator.ORDERED | Spliterator.DISTINCT);
+        }
+    }
+
+    /**
+     * Entry that writes its value through to the map.
+     */
+    final class Node implements Map.Entry<K, V> {
+        final K key;
+        V value;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            TreeMap.this.replace(key, value);
+            return oldValue;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return ObjectIntrinsics.equals(key, e.getKey()) && ObjectIntrinsics.equals(value, e.getValue());
+        }
+
+        public int hashCode() {
+            int keyHash = (key == null ? 0 : key.hashCode());
+            int valueHash = (value == null ? 0 : value.hashCode());
+            return keyHash ^ valueHash;
+        }
+
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /* ------------------------------------------------------------ */
+    // iterators
+
+    /**
+     * Iterator over the [from, to) range of entries, from the last one to the
+     * first one if it is descending.
+     */
+    abstract class PrivateEntryIterator<T> implements Iterator<T> {
+        final boolean descending;
+        int cursor;
+        int fence;
+        int lastRet = -1;
+
+        PrivateEntryIterator(int from, int to, boolean descending) {
+            this.descending = descending;
+            this.cursor = descending ? to - 1 : from;
+            this.fence = descending ? from - 1 : to;
+        }
+
+        public final boolean hasNext() {
+            TreeMap.this.contracts();
+            return descending ? cursor > fence : cursor < fence;
+        }
+
+        final int nextIndex() {
+            TreeMap.this.contracts();
+            if (!hasNext())
+                throw new NoSuchElementException();
+            lastRet = cursor;
+            cursor += descending ? -1 : 1;
+            return lastRet;
+        }
+
+        public void remove() {
+            TreeMap.this.contracts();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+
+            TreeMap.this.removeEntryAt(lastRet);
+            if (!descending) {
+                // entries after the removed one move one index down
+                cursor = lastRet;
+                --fence;
+            }
+            lastRet = -1;
+        }
+    }
+
+    final class KeyIterator extends PrivateEntryIterator<K> {
+        KeyIterator(int from, int to, boolean descending) {
+            super(from, to, descending);
+        }
+
+        public K next() {
+            return keys.get(nextIndex());
+        }
+    }
+
+    final class ValueIterator extends PrivateEntryIterator<V> {
+        ValueIterator(int from, int to, boolean descending) {
+            super(from, to, descending);
+        }
+
+        public V next() {
+            return values.get(nextIndex());
+        }
+    }
+
+    final class EntryIterator extends PrivateEntryIterator<Map.Entry<K, V>> {
+        EntryIterator(int from, int to, boolean descending) {
+            super(from, to, descending);
+        }
+
+        public Map.Entry<K, V> next() {
+            int index = nextIndex();
+            return new Node(keys.get(index), values.get(index));
+        }
+    }
+
+    /* ------------------------------------------------------------ */
+    // SubMaps
+
+    /**
+     * View of the entries between two bounds. The entries are a contiguous
+     * range of the backing arrays, its ends are found by the same searches
+     * as the keys.
+     */
+    final class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        final K lo, hi;
+        final boolean fromStart, toEnd;
+        final boolean loInclusive, hiInclusive;
+
+        SubMap(boolean fromStart, K lo, boolean loInclusive,
+               boolean toEnd, K hi, boolean hiInclusive) {
+            if (!fromStart && !toEnd) {
+                if (compare(lo, hi) > 0)
+                    throw new IllegalArgumentException("fromKey > toKey");
+            } else {
+                if (!fromStart) // type check
+                    compare(lo, lo);
+                if (!toEnd)
+                    compare(hi, hi);
+            }
+
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+        }
+
+        final int fromIndex() {
+            if (fromStart)
+                return 0;
+            return loInclusive ? lowerBound(lo) : upperBound(lo);
+        }
+
+        final int toIndex() {
+            if (toEnd)
+                return keys.size();
+            return hiInclusive ? upperBound(hi) : lowerBound(hi);
+        }
+
+        final boolean tooLow(Object key) {
+            if (!fromStart) {
+                int c = compare(key, lo);
+                return c < 0 || (c == 0 && !loInclusive);
+            }
+            return false;
+        }
+
+        final boolean tooHigh(Object key) {
+            if (!toEnd) {
+                int c = compare(key, hi);
+                return c > 0 || (c == 0 && !hiInclusive);
+            }
+            return false;
+        }
+
+        final boolean inRange(Object key) {
+            return !tooLow(key) && !tooHigh(key);
+        }
+
+        final boolean inClosedRange(Object key) {
+            return (fromStart || compare(key, lo) >= 0)
+                    && (toEnd || compare(hi, key) >= 0);
+        }
+
+        final boolean inRange(Object key, boolean inclusive) {
+            return inclusive ? inRange(key) : inClosedRange(key);
+        }
+
+        public int size() {
+            TreeMap.this.contracts();
+            return toIndex() - fromIndex();
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        public boolean containsKey(Object key) {
+            return inRange(key) && TreeMap.this.containsKey(key);
+        }
+
+        public V get(Object key) {
+            return !inRange(key) ? null : TreeMap.this.get(key);
+        }
+
+        public V put(K key, V value) {
+            if (!inRange(key))
+                throw new IllegalArgumentException("key out of range");
+            return TreeMap.this.put(key, value);
+        }
+
+        public V remove(Object key) {
+            return !inRange(key) ? null : TreeMap.this.remove(key);
+        }
+
+        public void clear() {
+            TreeMap.this.contracts();
+            removeEntries(fromIndex(), toIndex());
+        }
+
+        public Comparator<? super K> comparator() {
+            return TreeMap.this.comparator();
+        }
+
+        public K firstKey() {
+            TreeMap.this.contracts();
+            return keyOrThrow(firstIndex(fromIndex(), toIndex()));
+        }
+
+        public K lastKey() {
+            TreeMap.this.contracts();
+            return keyOrThrow(lastIndex(fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> firstEntry() {
+            TreeMap.this.contracts();
+            return entryOrNull(firstIndex(fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> lastEntry() {
+            TreeMap.this.contracts();
+            return entryOrNull(lastIndex(fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> pollFirstEntry() {
+            TreeMap.this.contracts();
+            return pollEntry(firstIndex(fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> pollLastEntry() {
+            TreeMap.this.contracts();
+            return pollEntry(lastIndex(fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> lowerEntry(K key) {
+            TreeMap.this.contracts();
+            return entryOrNull(lowerIndex(key, fromIndex(), toIndex()));
+        }
+
+        public K lowerKey(K key) {
+            TreeMap.this.contracts();
+            return keyOrNull(lowerIndex(key, fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> floorEntry(K key) {
+            TreeMap.this.contracts();
+            return entryOrNull(floorIndex(key, fromIndex(), toIndex()));
+        }
+
+        public K floorKey(K key) {
+            TreeMap.this.contracts();
+            return keyOrNull(floorIndex(key, fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            TreeMap.this.contracts();
+            return entryOrNull(ceilingIndex(key, fromIndex(), toIndex()));
+        }
+
+        public K ceilingKey(K key) {
+            TreeMap.this.contracts();
+            return keyOrNull(ceilingIndex(key, fromIndex(), toIndex()));
+        }
+
+        public Map.Entry<K, V> higherEntry(K key) {
+            TreeMap.this.contracts();
+            return entryOrNull(higherIndex(key, fromIndex(), toIndex()));
+        }
+
+        public K higherKey(K key) {
+            TreeMap.this.contracts();
+            return keyOrNull(higherIndex(key, fromIndex(), toIndex()));
+        }
+
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet(this, this, false);
+        }
+
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        public Collection<V> values() {
+            return new Values(this, false);
+        }
+
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new EntrySet(this, false);
+        }
+
+        public NavigableMap<K, V> descendingMap() {
+            return new DescendingMap(this);
+        }
+
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive,
+                                        K toKey, boolean toInclusive) {
+            if (!inRange(fromKey, fromInclusive))
+                throw new IllegalArgumentException("fromKey out of range");
+            if (!inRange(toKey, toInclusive))
+                throw new IllegalArgumentException("toKey out of range");
+            return new SubMap(false, fromKey, fromInclusive, false, toKey, toInclusive);
+        }
+
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            if (!inRange(toKey, inclusive))
+                throw new IllegalArgumentException("toKey out of range");
+            return new SubMap(fromStart, lo, loInclusive, false, toKey, inclusive);
+        }
+
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            if (!inRange(fromKey, inclusive))
+                throw new IllegalArgumentException("fromKey out of range");
+            return new SubMap(false, fromKey, inclusive, toEnd, hi, hiInclusive);
+        }
+
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+
+    /**
+     * Descending view of the map or of one of its submaps. It covers the same
+     * range of entries as the ascending map, so every method is delegated to
+     * the ascending map with the directions swapped.
+     */
+    final class DescendingMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final SubMap range;
+        private final NavigableMap<K, V> m;
+
+        DescendingMap(SubMap range) {
+            this.range = range;
+            this.m = range == null ? TreeMap.this : range;
+        }
+
+        public int size() {
+            return m.size();
+        }
+
+        public boolean isEmpty() {
+            return m.isEmpty();
+        }
+
+        public boolean containsKey(Object key) {
+            return m.containsKey(key);
+        }
+
+        public V get(Object key) {
+            return m.get(key);
+        }
+
+        public V put(K key, V value) {
+            return m.put(key, value);
+        }
+
+        public V remove(Object key) {
+            return m.remove(key);
+        }
+
+        public void clear() {
+            m.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        public Comparator<? super K> comparator() {
+            return Collections.reverseOrder((Comparator<K>) TreeMap.this.comparator());
+        }
+
+        public K firstKey() {
+            return m.lastKey();
+        }
+
+        public K lastKey() {
+            return m.firstKey();
+        }
+
+        public Map.Entry<K, V> firstEntry() {
+            return m.lastEntry();
+        }
+
+        public Map.Entry<K, V> lastEntry() {
+            return m.firstEntry();
+        }
+
+        public Map.Entry<K, V> pollFirstEntry() {
+            return m.pollLastEntry();
+        }
+
+        public Map.Entry<K, V> pollLastEntry() {
+            return m.pollFirstEntry();
+        }
+
+        public Map.Entry<K, V> lowerEntry(K key) {
+            return m.higherEntry(key);
+        }
+
+        public K lowerKey(K key) {
+            return m.higherKey(key);
+        }
+
+        public Map.Entry<K, V> floorEntry(K key) {
+            return m.ceilingEntry(key);
+        }
+
+        public K floorKey(K key) {
+            return m.ceilingKey(key);
+        }
+
+        public Map.Entry<K, V> ceilingEntry(K key) {
+            return m.floorEntry(key);
+        }
+
+        public K ceilingKey(K key) {
+            return m.floorKey(key);
+        }
+
+        public Map.Entry<K, V> higherEntry(K key) {
+            return m.lowerEntry(key);
+        }
+
+        public K higherKey(K key) {
+            return m.lowerKey(key);
+        }
+
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet(this, range, true);
+        }
+
+        public NavigableSet<K> descendingKeySet() {
+            return m.navigableKeySet();
+        }
+
+        public Collection<V> values() {
+            return new Values(range, true);
+        }
+
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new EntrySet(range, true);
+        }
+
+        public NavigableMap<K, V> descendingMap() {
+            return m;
+        }
+
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive,
+                                        K toKey, boolean toInclusive) {
+            return m.subMap(toKey, toInclusive, fromKey, fromInclusive).descendingMap();
+        }
+
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            return m.tailMap(toKey, inclusive).descendingMap();
+        }
+
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            return m.headMap(fromKey, inclusive).descendingMap();
+        }
+
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package kex.java.util;
+/*
+ * Copyright (c) 1998, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+
+import java.util.*;
+
+/**
+ * A {@link NavigableSet} implementation based on a {@link TreeMap}.
+ * The elements are ordered using their {@linkplain Comparable natural
+ * ordering}, or by a {@link Comparator} provided at set creation time,
+ * depending on which constructor is used.
+ *
+ * <p>The set is a view of the key set of the backing map, so all the
+ * operations reduce to the searches over the sorted key array of
+ * {@link TreeMap}.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @author Josh Bloch
+ * @see Collection
+ * @see Set
+ * @see HashSet
+ * @see Comparable
+ * @see Comparator
+ * @see TreeMap
+ * @since 1.2
+ */
+public class TreeSet<E> extends AbstractSet<E>
+        implements NavigableSet<E>, Cloneable, java.io.Serializable {
+    private static final long serialVersionUID = -2479143000061671589L;
+
+    /**
+     * The backing map.
+     */
+    private transient NavigableMap<E, Object> m;
+
+    // Dummy value to associate with an Object in the backing Map
+    private static final Object PRESENT = new Object();
+
+    TreeSet(NavigableMap<E, Object> m) {
+        this.m = m;
+    }
+
+    public TreeSet() {
+        this(new TreeMap<>());
+    }
+
+    public TreeSet(Comparator<? super E> comparator) {
+        this(new TreeMap<>(comparator));
+    }
+
+    public TreeSet(Collection<? extends E> c) {
+        this();
+        addAll(c);
+    }
+
+    public TreeSet(SortedSet<E> s) {
+        this(s.comparator());
+        addAll(s);
+    }
+
+    protected void contracts() {
+        AssertIntrinsics.kexNotNull(m);
+    }
+
+    @NotNull
+    public Iterator<E> iterator() {
+        contracts();
+        return m.navigableKeySet().iterator();
+    }
+
+    public Iterator<E> descendingIterator() {
+        contracts();
+        return m.descendingKeySet().iterator();
+    }
+
+    public NavigableSet<E> descendingSet() {
+        contracts();
+        return new TreeSet<>(m.descendingMap());
+    }
+
+    public int size() {
+        contracts();
+        return m.size();
+    }
+
+    public boolean isEmpty() {
+        contracts();
+        return m.isEmpty();
+    }
+
+    public boolean contains(Object o) {
+        contracts();
+        return m.containsKey(o);
+    }
+
+    public boolean add(E e) {
+        contracts();
+        return m.put(e, PRESENT) == null;
+    }
+
+    public boolean remove(Object o) {
+        contracts();
+        return m.remove(o) == PRESENT;
+    }
+
+    public void clear() {
+        contracts();
+        m.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends E> c) {
+        contracts();
+        if (m instanceof TreeMap && m.isEmpty() && c instanceof TreeSet) {
+            TreeSet<? extends E> other = (TreeSet<? extends E>) c;
+            if (other.m instanceof TreeMap) {
+                // the keys of the other set are already sorted, the map checks the comparators
+                ((TreeMap<E, Object>) m).putAll((TreeMap<? extends E, Object>) other.m);
+                return !isEmpty();
+            }
+        }
+        return super.addAll(c);
+    }
+
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive,
+                                  E toElement, boolean toInclusive) {
+        contracts();
+        return new TreeSet<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive));
+    }
+
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        contracts();
+        return new TreeSet<>(m.headMap(toElement, inclusive));
+    }
+
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        contracts();
+        return new TreeSet<>(m.tailMap(fromElement, inclusive));
+    }
+
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    public Comparator<? super E> comparator() {
+        contracts();
+        return m.comparator();
+    }
+
+    public E first() {
+        contracts();
+        return m.firstKey();
+    }
+
+    public E last() {
+        contracts();
+        return m.lastKey();
+    }
+
+    public E lower(E e) {
+        contracts();
+        return m.lowerKey(e);
+    }
+
+    public E floor(E e) {
+        contracts();
+        return m.floorKey(e);
+    }
+
+    public E ceiling(E e) {
+        contracts();
+        return m.ceilingKey(e);
+    }
+
+    public E higher(E e) {
+        contracts();
+        return m.higherKey(e);
+    }
+
+    public E pollFirst() {
+        contracts();
+        Map.Entry<E, ?> e = m.pollFirstEntry();
+        return (e == null) ? null : e.getKey();
+    }
+
+    public E pollLast() {
+        contracts();
+        Map.Entry<E, ?> e = m.pollLastEntry();
+        return (e == null) ? null : e.getKey();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object clone() {
+        contracts();
+        try {
+            TreeSet<E> clone = (TreeSet<E>) super.clone();
+            clone.m = new TreeMap<>(m);
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        contracts();
+        return m.navigableKeySet().spliterator();
+    }
+}
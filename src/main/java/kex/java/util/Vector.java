@@ -0,0 +1,594 @@
+package kex.java.util;
+/*
+ * Copyright (c) 1994, 2013, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import org.jetbrains.annotations.NotNull;
+import org.vorpal.research.kex.intrinsics.AssertIntrinsics;
+import org.vorpal.research.kex.intrinsics.CollectionIntrinsics;
+import org.vorpal.research.kex.intrinsics.ObjectIntrinsics;
+import org.vorpal.research.kex.intrinsics.UnknownIntrinsics;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The {@code Vector} class implements a growable array of
+ * objects. Like an array, it contains components that can be
+ * accessed using an integer index. However, the size of a
+ * {@code Vector} can grow or shrink as needed to accommodate
+ * adding and removing items after the {@code Vector} has been created.
+ *
+ * <p>The model keeps the storage scheme of {@link ArrayList}: the backing
+ * array has an unknown capacity and is rebuilt with a single array
+ * generation on every shift, searches are quantified constraints. The
+ * analyzed code is single-threaded, so none of the methods is
+ * {@code synchronized}.
+ *
+ * @author Lee Boynton
+ * @author Jonathan Payne
+ * @see Collection
+ * @see LinkedList
+ * @since JDK1.0
+ */
+public class Vector<E>
+        extends AbstractList<E>
+        implements List<E>, RandomAccess, Cloneable, java.io.Serializable {
+
+    private static final long serialVersionUID = -2767605614048989439L;
+
+    /**
+     * The array buffer into which the components of the vector are
+     * stored, the rest of the array after {@code elementCount} is spare
+     * capacity.
+     */
+    protected Object[] elementData;
+
+    /**
+     * The number of valid components in this {@code Vector} object.
+     */
+    protected int elementCount;
+
+    /**
+     * The amount by which the capacity of the vector is automatically
+     * incremented in the JDK. The model grows to an unknown capacity and
+     * keeps the field for subclasses only.
+     */
+    protected int capacityIncrement;
+
+    public Vector(int initialCapacity, int capacityIncrement) {
+        super();
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        int actualCapacity = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(actualCapacity >= initialCapacity);
+        this.elementData = new Object[actualCapacity];
+        this.capacityIncrement = capacityIncrement;
+    }
+
+    public Vector(int initialCapacity) {
+        this(initialCapacity, 0);
+    }
+
+    public Vector() {
+        this(10);
+    }
+
+    public Vector(Collection<? extends E> c) {
+        elementData = c.toArray();
+        elementCount = elementData.length;
+    }
+
+    private void contracts() {
+        AssertIntrinsics.kexNotNull(elementData);
+        AssertIntrinsics.kexAssume(elementCount >= 0);
+        AssertIntrinsics.kexAssume(elementCount <= elementData.length);
+    }
+
+    public void copyInto(Object[] anArray) {
+        contracts();
+        System.arraycopy(elementData, 0, anArray, 0, elementCount);
+    }
+
+    public void trimToSize() {
+        // nothing
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        contracts();
+        if (minCapacity > 0)
+            ensureCapacityHelper(minCapacity);
+    }
+
+    private void ensureCapacityHelper(int minCapacity) {
+        if (minCapacity > elementData.length)
+            grow(minCapacity);
+    }
+
+    /**
+     * Replaces the backing array with the one of unknown capacity, that is
+     * enough to hold at least {@code minCapacity} elements.
+     */
+    private void grow(int minCapacity) {
+        int newCapacity = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(newCapacity >= minCapacity);
+        int oldSize = elementCount;
+        elementData = CollectionIntrinsics.generateObjectArray(newCapacity, index -> {
+            if (index < oldSize) return elementData[index];
+            else return null;
+        });
+    }
+
+    public void setSize(int newSize) {
+        contracts();
+        if (newSize < 0)
+            throw new ArrayIndexOutOfBoundsException(newSize);
+        ensureCapacityHelper(newSize);
+        int oldSize = elementCount;
+        if (newSize != oldSize) {
+            // elements added by growing are null, the removed ones are cleared
+            int kept = Math.min(oldSize, newSize);
+            elementData = CollectionIntrinsics.generateObjectArray(elementData.length, index -> {
+                if (index < kept) return elementData[index];
+                else return null;
+            });
+        }
+        elementCount = newSize;
+    }
+
+    public int capacity() {
+        contracts();
+        return elementData.length;
+    }
+
+    @Override
+    public int size() {
+        contracts();
+        return elementCount;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        contracts();
+        return elementCount == 0;
+    }
+
+    public Enumeration<E> elements() {
+        return new Enumeration<E>() {
+            int count = 0;
+
+            public boolean hasMoreElements() {
+                contracts();
+                return count < elementCount;
+            }
+
+            @SuppressWarnings("unchecked")
+            public E nextElement() {
+                contracts();
+                if (count < elementCount)
+                    return (E) elementData[count++];
+                throw new NoSuchElementException("Vector Enumeration");
+            }
+        };
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o, 0) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return indexOf(o, 0);
+    }
+
+    public int indexOf(Object o, int index) {
+        contracts();
+        AssertIntrinsics.kexAssume(index >= 0);
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result == -1 || result >= index);
+        AssertIntrinsics.kexAssume(result < elementCount);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(index, elementCount, i -> !ObjectIntrinsics.equals(o, elementData[i])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(index, result, i -> !ObjectIntrinsics.equals(o, elementData[i])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[result]));
+        }
+        return result;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        contracts();
+        return lastIndexOf(o, elementCount - 1);
+    }
+
+    public int lastIndexOf(Object o, int index) {
+        contracts();
+        if (index >= elementCount)
+            throw new IndexOutOfBoundsException(index + " >= " + elementCount);
+        int result = UnknownIntrinsics.kexUnknownInt();
+        AssertIntrinsics.kexAssume(result >= -1);
+        AssertIntrinsics.kexAssume(result <= index);
+        if (result < 0) {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(0, index + 1, i -> !ObjectIntrinsics.equals(o, elementData[i])));
+        } else {
+            AssertIntrinsics.kexAssume(CollectionIntrinsics.forAll(result + 1, index + 1, i -> !ObjectIntrinsics.equals(o, elementData[i])));
+            AssertIntrinsics.kexAssume(ObjectIntrinsics.equals(o, elementData[result]));
+        }
+        return result;
+    }
+
+    private void rangeCheck(int index) {
+        if (index >= elementCount)
+            throw new ArrayIndexOutOfBoundsException(index);
+        AssertIntrinsics.kexAssume(index >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E elementAt(int index) {
+        contracts();
+        if (index >= elementCount)
+            throw new ArrayIndexOutOfBoundsException(index + " >= " + elementCount);
+        return (E) elementData[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public E firstElement() {
+        contracts();
+        if (elementCount == 0)
+            throw new NoSuchElementException();
+        return (E) elementData[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    public E lastElement() {
+        contracts();
+        if (elementCount == 0)
+            throw new NoSuchElementException();
+        return (E) elementData[elementCount - 1];
+    }
+
+    public void setElementAt(E obj, int index) {
+        contracts();
+        if (index >= elementCount)
+            throw new ArrayIndexOutOfBoundsException(index + " >= " + elementCount);
+        elementData[index] = obj;
+    }
+
+    public void removeElementAt(int index) {
+        contracts();
+        if (index >= elementCount)
+            throw new ArrayIndexOutOfBoundsException(index + " >= " + elementCount);
+        else if (index < 0)
+            throw new ArrayIndexOutOfBoundsException(index);
+        int oldSize = elementCount;
+        int numMoved = oldSize - index - 1;
+        if (numMoved > 0)
+            elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
+                if (i < index) return elementData[i];
+                else if (i < oldSize - 1) return elementData[i + 1];
+                else return null;
+            });
+        elementData[--elementCount] = null;
+    }
+
+    public void insertElementAt(E obj, int index) {
+        contracts();
+        if (index > elementCount)
+            throw new ArrayIndexOutOfBoundsException(index + " > " + elementCount);
+        AssertIntrinsics.kexAssume(index >= 0);
+        ensureCapacityHelper(elementCount + 1);
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
+            if (i < index) return elementData[i];
+            else if (i == index) return obj;
+            else return elementData[i - 1];
+        });
+        elementCount++;
+    }
+
+    public void addElement(E obj) {
+        contracts();
+        ensureCapacityHelper(elementCount + 1);
+        elementData[elementCount++] = obj;
+    }
+
+    public boolean removeElement(Object obj) {
+        int i = indexOf(obj);
+        if (i >= 0) {
+            removeElementAt(i);
+            return true;
+        }
+        return false;
+    }
+
+    public void removeAllElements() {
+        contracts();
+        elementData = new Object[elementData.length];
+        elementCount = 0;
+    }
+
+    @Override
+    public Object clone() {
+        Vector<?> v = new Vector<>();
+        contracts();
+        v.elementData = Arrays.copyOf(elementData, elementData.length);
+        v.elementCount = elementCount;
+        v.capacityIncrement = capacityIncrement;
+        v.modCount = 0;
+        return v;
+    }
+
+    @NotNull
+    @Override
+    public Object[] toArray() {
+        contracts();
+        return Arrays.copyOf(elementData, elementCount);
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    @Override
+    public <T> T[] toArray(@NotNull T[] a) {
+        contracts();
+        if (a.length < elementCount)
+            return (T[]) Arrays.copyOf(elementData, elementCount, a.getClass());
+        System.arraycopy(elementData, 0, a, 0, elementCount);
+        if (a.length > elementCount)
+            a[elementCount] = null;
+        return a;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E get(int index) {
+        contracts();
+        rangeCheck(index);
+        return (E) elementData[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E set(int index, E element) {
+        contracts();
+        rangeCheck(index);
+        E oldValue = (E) elementData[index];
+        elementData[index] = element;
+        return oldValue;
+    }
+
+    @Override
+    public boolean add(E e) {
+        addElement(e);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeElement(o);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        insertElementAt(element, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E remove(int index) {
+        contracts();
+        rangeCheck(index);
+        E oldValue = (E) elementData[index];
+        removeElementAt(index);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        removeAllElements();
+    }
+
+    @Override
+    public boolean addAll(@NotNull Collection<? extends E> c) {
+        return addAll(elementCount, c);
+    }
+
+    @Override
+    public boolean addAll(int index, @NotNull Collection<? extends E> c) {
+        contracts();
+        if (index < 0 || index > elementCount)
+            throw new ArrayIndexOutOfBoundsException(index);
+        Object[] a = c.toArray();
+        int numNew = a.length;
+        int oldSize = elementCount;
+        ensureCapacityHelper(oldSize + numNew);
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
+            if (i < index) return elementData[i];
+            else if (i < index + numNew) return a[i - index];
+            else if (i < oldSize + numNew) return elementData[i - numNew];
+            else return null;
+        });
+        elementCount += numNew;
+        return numNew != 0;
+    }
+
+    @Override
+    public boolean removeAll(@NotNull Collection<?> c) {
+        AssertIntrinsics.kexNotNull(c);
+        return batchRemove(c, false);
+    }
+
+    @Override
+    public boolean retainAll(@NotNull Collection<?> c) {
+        AssertIntrinsics.kexNotNull(c);
+        return batchRemove(c, true);
+    }
+
+    private boolean batchRemove(Collection<?> c, boolean complement) {
+        contracts();
+        int oldSize = elementCount;
+        elementCount = ArrayList.batchRemove(elementData, oldSize, c, complement);
+        return elementCount != oldSize;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        contracts();
+        int numMoved = toIndex - fromIndex;
+        int oldSize = elementCount;
+        elementData = CollectionIntrinsics.generateObjectArray(elementData.length, i -> {
+            if (i < fromIndex) return elementData[i];
+            else if (i + numMoved < oldSize) return elementData[i + numMoved];
+            else return null;
+        });
+        elementCount -= numMoved;
+    }
+
+    @NotNull
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        if (index < 0 || index > elementCount)
+            throw new IndexOutOfBoundsException("Index: " + index);
+        return new ListItr(index);
+    }
+
+    @NotNull
+    @Override
+    public ListIterator<E> listIterator() {
+        return new ListItr(0);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator<E> {
+        int cursor = 0;
+        int lastRet = -1;
+
+        @Override
+        public boolean hasNext() {
+            contracts();
+            return cursor < elementCount;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E next() {
+            int i = cursor;
+            contracts();
+            if (i >= elementCount)
+                throw new NoSuchElementException();
+            cursor = i + 1;
+            return (E) elementData[lastRet = i];
+        }
+
+        @Override
+        public void remove() {
+            contracts();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            Vector.this.remove(lastRet);
+            cursor = lastRet;
+            lastRet = -1;
+        }
+    }
+
+    final class ListItr extends Itr implements ListIterator<E> {
+        ListItr(int index) {
+            super();
+            cursor = index;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            contracts();
+            return cursor != 0;
+        }
+
+        @Override
+        public int nextIndex() {
+            contracts();
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            contracts();
+            return cursor - 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E previous() {
+            int i = cursor - 1;
+            if (i < 0)
+                throw new NoSuchElementException();
+            contracts();
+            cursor = i;
+            return (E) elementData[lastRet = i];
+        }
+
+        @Override
+        public void set(E e) {
+            contracts();
+            if (lastRet < 0)
+                throw new IllegalStateException();
+            Vector.this.set(lastRet, e);
+        }
+
+        @Override
+        public void add(E e) {
+            contracts();
+            int i = cursor;
+            Vector.this.add(i, e);
+            cursor = i + 1;
+            lastRet = -1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        AssertIntrinsics.kexNotNull(action);
+        contracts();
+        final E[] elementData = (E[]) this.elementData;
+        CollectionIntrinsics.forEach(0, elementCount, index -> action.accept(elementData[index]));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void sort(Comparator<? super E> c) {
+        contracts();
+        Arrays.sort((E[]) elementData, 0, elementCount, c);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        contracts();
+        return new ArraySpliterators.ArraySpliterator<>(elementData, 0, elementCount, Spliterator.ORDERED);
+    }
+}